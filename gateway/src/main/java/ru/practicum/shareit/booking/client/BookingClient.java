@@ -1,34 +1,31 @@
 package ru.practicum.shareit.booking.client;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
 import ru.practicum.shareit.booking.dto.BookingState;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerTransport;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl,
-        RestTemplateBuilder builder) {
-        super(
-            builder
-                .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                .build()
-        );
+    public BookingClient(ServerTransport transport) {
+        super(transport, API_PREFIX);
     }
 
-    public ResponseEntity<Object> getBookingByUserId(long userId, BookingState state, Integer from,
+    public Mono<ResponseEntity<Object>> getBookingByUserId(long userId, BookingState state, Integer from,
         Integer size) {
         Map<String, Object> parameters = Map.of(
             "state", state.name(),
@@ -39,15 +36,30 @@ public class BookingClient extends BaseClient {
     }
 
 
-    public ResponseEntity<Object> createBooking(long userId, BookItemRequestDto requestDto) {
+    public Mono<ResponseEntity<Flux<String>>> exportBookingsByUserId(long userId, String format) {
+        return streamLines("/export?format={format}", userId, Map.of("format", format));
+    }
+
+    public Mono<ResponseEntity<Object>> createBooking(long userId, BookItemRequestDto requestDto) {
         return post("", userId, requestDto);
     }
 
-    public ResponseEntity<Object> getBookingById(long bookingId, long userId) {
+    public Mono<ResponseEntity<Object>> createBookings(long userId, List<BookItemRequestDto> requestDtos) {
+        return post("/batch", userId, requestDtos);
+    }
+
+    public Mono<ResponseEntity<Object>> getBookingsByIds(long userId, List<Long> bookingIds) {
+        Map<String, Object> parameters = Map.of(
+            "ids", bookingIds.stream().map(String::valueOf).collect(Collectors.joining(","))
+        );
+        return get("/batch?ids={ids}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> getBookingById(long bookingId, long userId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> getBookingByOwnerId(long ownerId, BookingState state, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> getBookingByOwnerId(long ownerId, BookingState state, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
             "state", state.name(),
             "from", from,
@@ -56,7 +68,40 @@ public class BookingClient extends BaseClient {
         return get("/owner?state={state}&from={from}&size={size}", ownerId, parameters);
     }
 
-    public ResponseEntity<Object> approveBooking(long ownerId, long bookingId, Boolean approved) {
+    public Mono<ResponseEntity<Object>> getOwnerStats(long ownerId, LocalDateTime start, LocalDateTime end) {
+        StringBuilder path = new StringBuilder("/owner/stats");
+        Map<String, Object> parameters = new HashMap<>();
+        if (start != null) {
+            parameters.put("start", start);
+            path.append("?start={start}");
+        }
+        if (end != null) {
+            parameters.put("end", end);
+            path.append(start != null ? "&" : "?").append("end={end}");
+        }
+        return get(path.toString(), ownerId, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> getBookingPageByUserId(long userId, BookingState state, String cursor, Integer size) {
+        Map<String, Object> parameters = Map.of(
+            "state", state.name(),
+            "cursor", cursor,
+            "size", size
+        );
+        return get("?state={state}&cursor={cursor}&size={size}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> getBookingPageByOwnerId(long ownerId, BookingState state, String cursor,
+        Integer size) {
+        Map<String, Object> parameters = Map.of(
+            "state", state.name(),
+            "cursor", cursor,
+            "size", size
+        );
+        return get("/owner?state={state}&cursor={cursor}&size={size}", ownerId, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> approveBooking(long ownerId, long bookingId, Boolean approved) {
 
         return patch("/" + bookingId + "?approved=" + approved, ownerId);
     }
@@ -3,17 +3,26 @@ package ru.practicum.shareit.booking.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.client.BookingClient;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
 import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.exception.ValidationException;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import javax.validation.Valid;
+import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
 
 @Controller
 @RequestMapping(path = "/bookings")
@@ -21,28 +30,65 @@ import javax.validation.constraints.PositiveOrZero;
 @Slf4j
 @Validated
 public class BookingController {
+	private static final int MAX_BATCH_SIZE = 100;
+	private static final String NDJSON = "application/x-ndjson;charset=UTF-8";
+	private static final String CSV = "text/csv;charset=UTF-8";
+
 	private final BookingClient bookingClient;
 
 	@GetMapping
-	public ResponseEntity<Object> getBookingByUserId(@RequestHeader("X-Sharer-User-Id") long userId,
+	public Mono<ResponseEntity<Object>> getBookingByUserId(@RequestHeader("X-Sharer-User-Id") long userId,
 			@RequestParam(name = "state", defaultValue = "all") String stateParam,
 			@PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-			@Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+			@Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+			@RequestParam(name = "cursor", required = false) String cursor) {
 		BookingState state = BookingState.from(stateParam)
 				.orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
+		if (cursor != null) {
+			log.info("Get booking with state {}, userId={}, cursor={}, size={}", stateParam, userId, cursor, size);
+			return bookingClient.getBookingPageByUserId(userId, state, cursor, size);
+		}
 		log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
 		return bookingClient.getBookingByUserId(userId, state, from, size);
 	}
 
+	// Под Tomcat тип строкового потока берётся из produces, поэтому у каждого формата свой метод
+	@GetMapping(path = "/export", produces = NDJSON)
+	public Mono<ResponseEntity<Flux<String>>> exportBookingsByUserId(@RequestHeader("X-Sharer-User-Id") long userId,
+			@RequestParam(name = "format", defaultValue = "ndjson") @Pattern(regexp = "ndjson") String format) {
+		log.info("Export bookings in ndjson, userId={}", userId);
+		return bookingClient.exportBookingsByUserId(userId, format);
+	}
+
+	@GetMapping(path = "/export", params = "format=csv", produces = CSV)
+	public Mono<ResponseEntity<Flux<String>>> exportBookingsByUserIdAsCsv(@RequestHeader("X-Sharer-User-Id") long userId) {
+		log.info("Export bookings in csv, userId={}", userId);
+		return bookingClient.exportBookingsByUserId(userId, "csv");
+	}
+
 	@PostMapping
-	public ResponseEntity<Object> createBooking(@RequestHeader("X-Sharer-User-Id") long userId,
+	public Mono<ResponseEntity<Object>> createBooking(@RequestHeader("X-Sharer-User-Id") long userId,
 			@RequestBody @Valid BookItemRequestDto requestDto) {
 		log.info("Creating booking {}, userId={}", requestDto, userId);
 		return bookingClient.createBooking(userId, requestDto);
 	}
 
+	@PostMapping("/batch")
+	public Mono<ResponseEntity<Object>> createBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+			@RequestBody @Size(min = 1, max = MAX_BATCH_SIZE) List<@Valid BookItemRequestDto> requestDtos) {
+		log.info("Creating {} bookings, userId={}", requestDtos.size(), userId);
+		return bookingClient.createBookings(userId, requestDtos);
+	}
+
+	@GetMapping("/batch")
+	public Mono<ResponseEntity<Object>> getBookingsByIds(@RequestHeader("X-Sharer-User-Id") long userId,
+			@RequestParam(name = "ids") @Size(min = 1, max = MAX_BATCH_SIZE) List<Long> bookingIds) {
+		log.info("Get bookings by ids: {}", bookingIds);
+		return bookingClient.getBookingsByIds(userId, bookingIds);
+	}
+
 	@GetMapping("/{bookingId}")
-	public ResponseEntity<Object> getBookingById(@PathVariable long bookingId,
+	public Mono<ResponseEntity<Object>> getBookingById(@PathVariable long bookingId,
 		@RequestHeader("X-Sharer-User-Id") long userId) {
 		log.info("Get booking by id: {}", bookingId);
 		return bookingClient.getBookingById(bookingId, userId);
@@ -50,19 +96,34 @@ public class BookingController {
 
 
 	@GetMapping("/owner")
-	public ResponseEntity<Object> getBookingByOwnerId(
+	public Mono<ResponseEntity<Object>> getBookingByOwnerId(
 		@RequestHeader("X-Sharer-User-Id") long userId,
 		@RequestParam(name = "state", defaultValue = "ALL") String stateParam,
 		@RequestParam(name = "from", defaultValue = "0") Integer from,
-		@RequestParam(name = "size", defaultValue = "10") Integer size) {
+		@RequestParam(name = "size", defaultValue = "10") Integer size,
+		@RequestParam(name = "cursor", required = false) String cursor) {
 		BookingState state = BookingState.from(stateParam)
 			.orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
 		log.info("Get booking by ownerId: {}", userId);
+		if (cursor != null) {
+			return bookingClient.getBookingPageByOwnerId(userId, state, cursor, size);
+		}
 		return bookingClient.getBookingByOwnerId(userId, state, from, size);
 	}
 
+	@GetMapping("/owner/stats")
+	public Mono<ResponseEntity<Object>> getOwnerStats(@RequestHeader("X-Sharer-User-Id") long userId,
+			@RequestParam(name = "start", required = false) @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime start,
+			@RequestParam(name = "end", required = false) @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime end) {
+		log.info("Get booking stats by ownerId: {}, start={}, end={}", userId, start, end);
+		if (start != null && end != null && !start.isBefore(end)) {
+			throw new ValidationException("Начало периода должно быть раньше его окончания");
+		}
+		return bookingClient.getOwnerStats(userId, start, end);
+	}
+
 	@PatchMapping("/{bookingId}")
-	public ResponseEntity<Object> approvedBooking(@RequestHeader("X-Sharer-User-Id") long ownerId,
+	public Mono<ResponseEntity<Object>> approvedBooking(@RequestHeader("X-Sharer-User-Id") long ownerId,
 		@PathVariable("bookingId") long bookingId,
 		@RequestParam(name = "approved") Boolean approved) {
 		log.info("Approve booking by id: {}", bookingId);
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.client;
+
+import java.util.HashSet;
+import java.util.Set;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Маршруты gateway, для которых одинаковые одновременные GET-запросы объединяются в один запрос к серверу.
+ */
+@Getter
+@Setter
+@ConfigurationProperties("shareit-gateway.coalescing")
+public class CoalescingProperties {
+    private Set<String> routes = new HashSet<>(Set.of("items.get", "items.search", "items.autocomplete",
+        "requests.all"));
+}
@@ -0,0 +1,50 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+/**
+ * Пул соединений, который замеряет, сколько запрос ждал свободное соединение. Остальные показатели пула
+ * (занятые, свободные, ожидающие) публикует {@code PoolingHttpClientConnectionManagerMetricsBinder}.
+ */
+class LeaseTimingConnectionManager extends PoolingHttpClientConnectionManager {
+    private final Timer leaseTimer;
+
+    LeaseTimingConnectionManager(MeterRegistry meterRegistry, String poolName) {
+        this.leaseTimer = Timer.builder("httpcomponents.httpclient.pool.lease")
+            .description("Время ожидания соединения из пула")
+            .tag("httpclient", poolName)
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+    }
+
+    @Override
+    public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+        ConnectionRequest request = super.requestConnection(route, state);
+
+        return new ConnectionRequest() {
+            @Override
+            public HttpClientConnection get(long timeout, TimeUnit unit)
+                throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                long start = System.nanoTime();
+                try {
+                    return request.get(timeout, unit);
+                } finally {
+                    leaseTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return request.cancel();
+            }
+        };
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Single-flight для запросов к shareit-server: пока запрос с ключом выполняется, такие же запросы
+ * не уходят на сервер, а получают его результат (и ответ, и ошибку).
+ *
+ * <p>Метрика {@code shareit.gateway.coalescing.requests} считает запросы по маршруту с тегом
+ * {@code role}: {@code leader} ушёл на сервер, {@code follower} присоединился к уже идущему.
+ * Доля схлопнутых запросов - follower / (leader + follower).
+ */
+@Component
+public class RequestCoalescer {
+    private final Map<String, Mono<ResponseEntity<Object>>> inFlight = new ConcurrentHashMap<>();
+    private final CoalescingProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public RequestCoalescer(CoalescingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gaugeMapSize("shareit.gateway.coalescing.in.flight", List.of(), inFlight);
+    }
+
+    public Mono<ResponseEntity<Object>> execute(String route, String key,
+        Supplier<Mono<ResponseEntity<Object>>> request) {
+        if (!properties.getRoutes().contains(route)) {
+            return request.get();
+        }
+
+        return Mono.defer(() -> {
+            boolean[] leader = new boolean[1];
+            Mono<ResponseEntity<Object>> shared = inFlight.computeIfAbsent(key, k -> {
+                leader[0] = true;
+                return request.get()
+                    .doFinally(signal -> inFlight.remove(k))
+                    .cache();
+            });
+
+            counter(route, leader[0] ? "leader" : "follower").increment();
+            return shared;
+        });
+    }
+
+    private Counter counter(String route, String role) {
+        return Counter.builder("shareit.gateway.coalescing.requests")
+            .description("Запросы к shareit-server через single-flight")
+            .tag("route", route)
+            .tag("role", role)
+            .register(meterRegistry);
+    }
+}
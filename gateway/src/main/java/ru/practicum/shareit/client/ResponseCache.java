@@ -0,0 +1,134 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.function.Function;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Кэш успешных ответов shareit-server для читающих эндпоинтов gateway. Размер ограничен,
+ * вытеснение - W-TinyLFU из Caffeine, время свежести задаётся для каждого эндпоинта.
+ *
+ * <p>Устаревший ответ с ETag не удаляется сразу, а ещё {@code staleRetention} хранится для перепроверки:
+ * запрос уходит на сервер с {@code If-None-Match}, и на 304 клиенту отдаётся сохранённое тело.
+ *
+ * <p>Ключ строит {@link BaseClient} из пути, параметров и {@code X-Sharer-User-Id}, поэтому ответы,
+ * зависящие от пользователя (вещь глазами владельца и чужого пользователя), не смешиваются.
+ * Одновременные промахи по одному ключу уходят на сервер одним запросом через {@link RequestCoalescer}.
+ */
+@Component
+public class ResponseCache {
+    private final Cache<String, Entry> cache;
+    private final RequestCoalescer coalescer;
+    private final Ticker ticker;
+    private final long staleRetentionNanos;
+
+    @Autowired
+    public ResponseCache(ResponseCacheProperties properties, RequestCoalescer coalescer, MeterRegistry meterRegistry) {
+        this(properties, coalescer, Ticker.systemTicker());
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway-responses");
+    }
+
+    ResponseCache(ResponseCacheProperties properties, RequestCoalescer coalescer, Ticker ticker) {
+        this.coalescer = coalescer;
+        this.ticker = ticker;
+        this.staleRetentionNanos = properties.getStaleRetention().toNanos();
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(properties.getMaxSize())
+            .expireAfter(new EntryExpiry())
+            .ticker(ticker)
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * @param route   маршрут для настроек single-flight, см. {@link CoalescingProperties}
+     * @param request отправляет запрос на сервер с переданными дополнительными заголовками
+     */
+    public Mono<ResponseEntity<Object>> get(String route, String key, Duration ttl,
+        Function<HttpHeaders, Mono<ResponseEntity<Object>>> request) {
+        Entry cached = cache.getIfPresent(key);
+        if (cached != null && cached.isFresh(ticker.read())) {
+            return Mono.just(cached.getResponse());
+        }
+
+        return coalescer.execute(route, key, () -> load(key, ttl, cached, request));
+    }
+
+    private Mono<ResponseEntity<Object>> load(String key, Duration ttl, Entry cached,
+        Function<HttpHeaders, Mono<ResponseEntity<Object>>> request) {
+        HttpHeaders conditionalHeaders = new HttpHeaders();
+        if (cached != null && cached.getEtag() != null) {
+            conditionalHeaders.setIfNoneMatch(cached.getEtag());
+        }
+
+        return request.apply(conditionalHeaders)
+            .map(response -> {
+                if (cached != null && response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                    cache.put(key, new Entry(cached.getResponse(), cached.getEtag(), ttl, ticker.read()));
+                    return cached.getResponse();
+                }
+
+                if (response.getStatusCode().is2xxSuccessful()) {
+                    cache.put(key, new Entry(response, response.getHeaders().getETag(), ttl, ticker.read()));
+                } else if (cached != null) {
+                    cache.invalidate(key);
+                }
+                return response;
+            });
+    }
+
+    /**
+     * Удаляет ответы, ключ которых начинается с {@code keyPrefix}, - после изменения данных через gateway.
+     */
+    public void invalidate(String keyPrefix) {
+        cache.asMap().keySet().removeIf(key -> key.startsWith(keyPrefix));
+    }
+
+    @Getter
+    private static class Entry {
+        private final ResponseEntity<Object> response;
+        private final String etag;
+        private final long ttlNanos;
+        private final long freshUntilNanos;
+
+        Entry(ResponseEntity<Object> response, String etag, Duration ttl, long now) {
+            this.response = response;
+            this.etag = etag;
+            this.ttlNanos = ttl.toNanos();
+            this.freshUntilNanos = now + ttlNanos;
+        }
+
+        boolean isFresh(long now) {
+            return now - freshUntilNanos < 0;
+        }
+    }
+
+    private class EntryExpiry implements Expiry<String, Entry> {
+        @Override
+        public long expireAfterCreate(String key, Entry entry, long currentTime) {
+            return entry.getEtag() != null ? entry.getTtlNanos() + staleRetentionNanos : entry.getTtlNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
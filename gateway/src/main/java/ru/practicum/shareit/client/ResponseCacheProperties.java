@@ -0,0 +1,26 @@
+package ru.practicum.shareit.client;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки кэша ответов shareit-server в gateway: общий размер и время свежести по эндпоинтам.
+ */
+@Getter
+@Setter
+@ConfigurationProperties("shareit-gateway.cache")
+public class ResponseCacheProperties {
+    private long maxSize = 10_000;
+    // Сколько после устаревания хранится ответ с ETag для перепроверки через If-None-Match
+    private Duration staleRetention = Duration.ofMinutes(5);
+    // GET /items/{id}
+    private Duration itemTtl = Duration.ofSeconds(5);
+    // GET /items/search
+    private Duration searchTtl = Duration.ofSeconds(30);
+    // GET /items/autocomplete
+    private Duration autocompleteTtl = Duration.ofSeconds(5);
+    // GET /requests/all
+    private Duration requestsTtl = Duration.ofSeconds(10);
+}
@@ -0,0 +1,77 @@
+package ru.practicum.shareit.client;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Блокирующий транспорт: запрос выполняется в потоке, подписавшемся на результат, то есть
+ * в потоке Tomcat, обрабатывающем запрос к gateway.
+ */
+@RequiredArgsConstructor
+public class RestTemplateTransport implements ServerTransport {
+    private final RestTemplate rest;
+
+    @Override
+    public <T> Mono<ResponseEntity<Object>> exchange(HttpMethod method, String path, HttpHeaders headers,
+        @Nullable Map<String, Object> parameters, @Nullable T body) {
+        return Mono.fromCallable(() -> send(method, path, new HttpEntity<>(body, headers), parameters));
+    }
+
+    /**
+     * Ответ читается напрямую из соединения в отдельном потоке: {@link RestTemplate#exchange} дочитал бы тело
+     * целиком, а {@link RestTemplate#execute} закрыл бы соединение до того, как строки уйдут клиенту.
+     */
+    @Override
+    public Mono<ResponseEntity<Flux<String>>> streamLines(String path, HttpHeaders headers,
+        @Nullable Map<String, Object> parameters) {
+        return Mono.fromCallable(() -> {
+            URI uri = parameters != null
+                ? rest.getUriTemplateHandler().expand(path, parameters)
+                : rest.getUriTemplateHandler().expand(path);
+            ClientHttpRequest request = rest.getRequestFactory().createRequest(uri, HttpMethod.GET);
+            request.getHeaders().addAll(headers);
+            ClientHttpResponse response = request.execute();
+
+            Flux<String> lines = Flux.using(
+                () -> new BufferedReader(new InputStreamReader(response.getBody(), StandardCharsets.UTF_8)),
+                reader -> Flux.fromStream(reader.lines()),
+                reader -> response.close()
+            ).subscribeOn(Schedulers.boundedElastic());
+
+            return ServerTransport.streamed(response.getRawStatusCode(), response.getHeaders(), lines);
+        });
+    }
+
+    private <T> ResponseEntity<Object> send(HttpMethod method, String path, HttpEntity<T> requestEntity,
+        @Nullable Map<String, Object> parameters) {
+        ResponseEntity<byte[]> shareitServerResponse;
+        try {
+            if (parameters != null) {
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class, parameters);
+            } else {
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class);
+            }
+        } catch (HttpStatusCodeException e) {
+            HttpHeaders errorHeaders = e.getResponseHeaders() != null ? e.getResponseHeaders() : new HttpHeaders();
+            return ServerTransport.passthrough(e.getRawStatusCode(), errorHeaders, e.getResponseBodyAsByteArray());
+        }
+        return ServerTransport.passthrough(shareitServerResponse.getStatusCodeValue(),
+            shareitServerResponse.getHeaders(), shareitServerResponse.getBody());
+    }
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.client;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки пула соединений gateway до shareit-server, общие для RestTemplate и WebClient.
+ */
+@Getter
+@Setter
+@ConfigurationProperties("shareit-server.http-client")
+public class ServerHttpClientProperties {
+    // Всего соединений в пуле (только RestTemplate, у WebClient пул на каждый адрес)
+    private int maxConnections = 200;
+    // Соединений до одного адреса shareit-server
+    private int maxConnectionsPerRoute = 100;
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private Duration readTimeout = Duration.ofSeconds(10);
+    // Сколько запрос ждёт свободное соединение из пула
+    private Duration leaseTimeout = Duration.ofSeconds(1);
+    // Время жизни keep-alive соединения, если сервер не прислал заголовок Keep-Alive
+    private Duration keepAlive = Duration.ofSeconds(60);
+    // Простаивающие дольше соединения закрываются фоновой задачей
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+}
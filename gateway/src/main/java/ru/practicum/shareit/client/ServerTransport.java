@@ -0,0 +1,58 @@
+package ru.practicum.shareit.client;
+
+import java.util.Map;
+import java.util.Set;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Способ отправки запроса на shareit-server. Ответы с ошибкой не бросают исключение, а возвращаются
+ * с исходным статусом и телом ответа сервера.
+ *
+ * <p>Тело ответа не разбирается: клиенту gateway уходят байты ответа сервера ({@code byte[]})
+ * с его статусом и заголовками, кроме {@link #HOP_BY_HOP_HEADERS} - их gateway выставляет сам
+ * для своего соединения с клиентом.
+ *
+ * <p>Построчные ответы (выгрузки NDJSON и CSV) не собираются целиком: {@link #streamLines} отдаёт строки
+ * клиенту gateway по мере чтения из ответа сервера.
+ */
+public interface ServerTransport {
+    Set<String> HOP_BY_HOP_HEADERS = Set.of(HttpHeaders.CONNECTION.toLowerCase(),
+        HttpHeaders.TRANSFER_ENCODING.toLowerCase(), HttpHeaders.CONTENT_LENGTH.toLowerCase(), "keep-alive");
+
+    <T> Mono<ResponseEntity<Object>> exchange(HttpMethod method, String path, HttpHeaders headers,
+        @Nullable Map<String, Object> parameters, @Nullable T body);
+
+    Mono<ResponseEntity<Flux<String>>> streamLines(String path, HttpHeaders headers,
+        @Nullable Map<String, Object> parameters);
+
+    static ResponseEntity<Flux<String>> streamed(int status, HttpHeaders serverHeaders, Flux<String> lines) {
+        return ResponseEntity.status(status)
+            .headers(forwardedHeaders(serverHeaders))
+            .body(lines.map(line -> line + "\n"));
+    }
+
+    static ResponseEntity<Object> passthrough(int status, HttpHeaders serverHeaders, @Nullable byte[] body) {
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(status)
+            .headers(forwardedHeaders(serverHeaders));
+
+        if (body == null || body.length == 0) {
+            return responseBuilder.build();
+        }
+        return responseBuilder.body(body);
+    }
+
+    private static HttpHeaders forwardedHeaders(HttpHeaders serverHeaders) {
+        HttpHeaders headers = new HttpHeaders();
+        serverHeaders.forEach((name, values) -> {
+            if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase())) {
+                headers.addAll(name, values);
+            }
+        });
+        return headers;
+    }
+}
@@ -0,0 +1,106 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import io.netty.channel.ChannelOption;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Транспорт до shareit-server, общий для всех клиентов gateway. По умолчанию - RestTemplate
+ * под Tomcat, с профилем {@code reactive} - WebClient под WebFlux (см. {@code application-reactive.properties}).
+ *
+ * <p>Оба варианта работают через один пул keep-alive соединений с лимитами и таймаутами
+ * из {@link ServerHttpClientProperties}.
+ */
+@Configuration
+@EnableConfigurationProperties({ServerHttpClientProperties.class, ResponseCacheProperties.class,
+    CoalescingProperties.class})
+public class ServerTransportConfig {
+    private static final String POOL_NAME = "shareit-server";
+
+    @Bean
+    @Profile("!reactive")
+    public CloseableHttpClient serverHttpClient(ServerHttpClientProperties properties, MeterRegistry meterRegistry) {
+        LeaseTimingConnectionManager connectionManager = new LeaseTimingConnectionManager(meterRegistry, POOL_NAME);
+        connectionManager.setMaxTotal(properties.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(properties.getMaxConnectionsPerRoute());
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, POOL_NAME).bindTo(meterRegistry);
+
+        long keepAlive = properties.getKeepAlive().toMillis();
+
+        return HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectTimeout((int) properties.getConnectTimeout().toMillis())
+                .setSocketTimeout((int) properties.getReadTimeout().toMillis())
+                .setConnectionRequestTimeout((int) properties.getLeaseTimeout().toMillis())
+                .build())
+            .setKeepAliveStrategy((response, context) -> {
+                long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE
+                    .getKeepAliveDuration(response, context);
+                return serverKeepAlive > 0 ? Math.min(serverKeepAlive, keepAlive) : keepAlive;
+            })
+            .evictExpiredConnections()
+            .evictIdleConnections(properties.getMaxIdleTime().toMillis(), TimeUnit.MILLISECONDS)
+            .build();
+    }
+
+    @Bean
+    @Profile("!reactive")
+    public ServerTransport restTemplateTransport(@Value("${shareit-server.url}") String serverUrl,
+        RestTemplateBuilder builder, CloseableHttpClient serverHttpClient) {
+        return new RestTemplateTransport(
+            builder
+                .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl))
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(serverHttpClient))
+                .build()
+        );
+    }
+
+    @Bean(destroyMethod = "dispose")
+    @Profile("reactive")
+    public ConnectionProvider serverConnectionProvider(ServerHttpClientProperties properties) {
+        // Метрики reactor.netty.connection.provider.* с тегом name=shareit-server
+        return ConnectionProvider.builder(POOL_NAME)
+            .maxConnections(properties.getMaxConnectionsPerRoute())
+            .pendingAcquireTimeout(properties.getLeaseTimeout())
+            .maxIdleTime(properties.getMaxIdleTime())
+            .maxLifeTime(properties.getKeepAlive())
+            .evictInBackground(properties.getMaxIdleTime())
+            .metrics(true)
+            .build();
+    }
+
+    @Bean
+    @Profile("reactive")
+    public ServerTransport webClientTransport(@Value("${shareit-server.url}") String serverUrl,
+        WebClient.Builder builder, ConnectionProvider serverConnectionProvider, ServerHttpClientProperties properties) {
+        HttpClient httpClient = HttpClient.create(serverConnectionProvider)
+            .keepAlive(true)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+            .responseTimeout(properties.getReadTimeout());
+
+        return new WebClientTransport(
+            builder
+                .baseUrl(serverUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build()
+        );
+    }
+}
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.client;
+
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Неблокирующий транспорт на {@link WebClient}: поток не занят, пока shareit-server готовит ответ,
+ * поэтому число одновременных запросов не ограничено размером пула потоков.
+ */
+@RequiredArgsConstructor
+public class WebClientTransport implements ServerTransport {
+    private final WebClient webClient;
+
+    @Override
+    public <T> Mono<ResponseEntity<Object>> exchange(HttpMethod method, String path, HttpHeaders headers,
+        @Nullable Map<String, Object> parameters, @Nullable T body) {
+        WebClient.RequestBodySpec request = parameters != null
+            ? webClient.method(method).uri(path, parameters)
+            : webClient.method(method).uri(path);
+        request.headers(requestHeaders -> requestHeaders.addAll(headers));
+
+        WebClient.RequestHeadersSpec<?> requestWithBody = body != null ? request.bodyValue(body) : request;
+
+        return requestWithBody.exchangeToMono(WebClientTransport::prepareGatewayResponse);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<String>>> streamLines(String path, HttpHeaders headers,
+        @Nullable Map<String, Object> parameters) {
+        WebClient.RequestHeadersSpec<?> request = parameters != null
+            ? webClient.get().uri(path, parameters)
+            : webClient.get().uri(path);
+
+        return request.headers(requestHeaders -> requestHeaders.addAll(headers))
+            .retrieve()
+            // Ответ с ошибкой не превращается в исключение, а уходит клиенту с исходным статусом
+            .onStatus(status -> true, response -> Mono.empty())
+            .toEntityFlux(String.class)
+            .map(response -> ServerTransport.streamed(response.getStatusCodeValue(), response.getHeaders(),
+                response.getBody() != null ? response.getBody() : Flux.empty()));
+    }
+
+    private static Mono<ResponseEntity<Object>> prepareGatewayResponse(ClientResponse response) {
+        HttpHeaders serverHeaders = response.headers().asHttpHeaders();
+
+        return response.bodyToMono(byte[].class)
+            .map(body -> ServerTransport.passthrough(response.rawStatusCode(), serverHeaders, body))
+            .defaultIfEmpty(ServerTransport.passthrough(response.rawStatusCode(), serverHeaders, null));
+    }
+}
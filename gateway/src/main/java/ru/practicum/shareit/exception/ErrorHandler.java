@@ -3,11 +3,13 @@ package ru.practicum.shareit.exception;
 import javax.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingRequestHeaderException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.ResponseStatusException;
 
 @Slf4j
 @RestControllerAdvice
@@ -31,6 +33,14 @@ public class ErrorHandler {
         return errorDto;
     }
 
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<ErrorDto> handleResponseStatus(final ResponseStatusException e) {
+        log.error("error = " + e.getMessage() + ", httpStatus = " + e.getStatus());
+        ErrorDto errorDto = new ErrorDto();
+        errorDto.setError(e.getReason());
+        return ResponseEntity.status(e.getStatus()).body(errorDto);
+    }
+
     @ExceptionHandler({IllegalStateException.class, Exception.class, IllegalArgumentException.class})
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorDto handleException(final Exception e) {
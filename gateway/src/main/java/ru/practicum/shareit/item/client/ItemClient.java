@@ -1,14 +1,15 @@
 package ru.practicum.shareit.item.client;
 
+import java.time.LocalDateTime;
 import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ResponseCacheProperties;
+import ru.practicum.shareit.client.ServerTransport;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
@@ -16,21 +17,22 @@ import ru.practicum.shareit.item.dto.ItemDto;
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
+    private final ResponseCache responseCache;
+    private final ResponseCacheProperties cacheProperties;
+
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-            builder
-                .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                .build()
-        );
+    public ItemClient(ServerTransport transport, ResponseCache responseCache, ResponseCacheProperties cacheProperties) {
+        super(transport, API_PREFIX);
+        this.responseCache = responseCache;
+        this.cacheProperties = cacheProperties;
     }
 
-    public ResponseEntity<Object> getItemById(long userId, long itemId) {
-        return get("/" + itemId, userId);
+    public Mono<ResponseEntity<Object>> getItemById(long userId, long itemId) {
+        // Владелец видит последнюю и следующую аренду, поэтому ответ кэшируется для каждого пользователя
+        return cachedGet(responseCache, "items.get", cacheProperties.getItemTtl(), "/" + itemId, userId, null);
     }
 
-    public ResponseEntity<Object> getAllItemsByUserId(long userId, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> getAllItemsByUserId(long userId, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
             "from", from,
             "size", size
@@ -38,24 +40,81 @@ public class ItemClient extends BaseClient {
         return get("?from{from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> createItem(long userId, ItemDto itemDto) {
-        return post("", userId, itemDto);
+    public Mono<ResponseEntity<Object>> createItem(long userId, ItemDto itemDto) {
+        return post("", userId, itemDto)
+            .doOnNext(response -> {
+                if (response.getStatusCode().is2xxSuccessful()) {
+                    invalidateSearch();
+                }
+            });
     }
 
-    public ResponseEntity<Object> updateItem(long itemId, long userId, ItemDto itemDto) {
-        return patch("/" + itemId, userId, itemDto);
+    public Mono<ResponseEntity<Object>> updateItem(long itemId, long userId, ItemDto itemDto) {
+        return patch("/" + itemId, userId, itemDto)
+            .doOnNext(response -> {
+                if (response.getStatusCode().is2xxSuccessful()) {
+                    invalidateItem(itemId);
+                    invalidateSearch();
+                }
+            });
     }
 
-    public ResponseEntity<Object> searchItem(String text, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> searchItem(String text, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
             "text", text,
             "from", from,
             "size", size
         );
-        return get("/search?text={text}&from={from}&size={size}", 1L, parameters);
+        return cachedGet(responseCache, "items.search", cacheProperties.getSearchTtl(),
+            "/search?text={text}&from={from}&size={size}", 1L, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> searchAvailableItem(String text, LocalDateTime start, LocalDateTime end,
+        Integer from, Integer size) {
+        Map<String, Object> parameters = Map.of(
+            "text", text,
+            "start", start,
+            "end", end,
+            "from", from,
+            "size", size
+        );
+        return get("/search/available?text={text}&start={start}&end={end}&from={from}&size={size}", 1L, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> autocomplete(String prefix, Integer limit) {
+        Map<String, Object> parameters = Map.of(
+            "prefix", prefix,
+            "limit", limit
+        );
+        return cachedGet(responseCache, "items.autocomplete", cacheProperties.getAutocompleteTtl(),
+            "/autocomplete?prefix={prefix}&limit={limit}", 1L, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> addComment(long userId, long itemId, CommentDto commentDto) {
+        return post("/" + itemId + "/comment", userId, commentDto)
+            .doOnNext(response -> {
+                if (response.getStatusCode().is2xxSuccessful()) {
+                    invalidateItem(itemId);
+                }
+            });
+    }
+
+    public Mono<ResponseEntity<Object>> getComments(long itemId, String cursor, Integer size) {
+        if (cursor == null) {
+            return get("/" + itemId + "/comments?size={size}", null, Map.of("size", size));
+        }
+        Map<String, Object> parameters = Map.of(
+            "cursor", cursor,
+            "size", size
+        );
+        return get("/" + itemId + "/comments?cursor={cursor}&size={size}", null, parameters);
+    }
+
+    private void invalidateItem(long itemId) {
+        responseCache.invalidate(API_PREFIX + "/" + itemId + "|");
     }
 
-    public ResponseEntity<Object> addComment(long userId, long itemId, CommentDto commentDto) {
-        return post("/" + itemId + "/comment", userId, commentDto);
+    private void invalidateSearch() {
+        responseCache.invalidate(API_PREFIX + "/search");
     }
 }
@@ -1,8 +1,11 @@
 package ru.practicum.shareit.item.controller;
 
+import java.time.LocalDateTime;
 import javax.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -13,6 +16,8 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.client.ItemClient;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
@@ -25,14 +30,14 @@ public class ItemController {
     private final ItemClient itemClient;
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getItemById(@RequestHeader("X-Sharer-User-Id") long userId,
+    public Mono<ResponseEntity<Object>> getItemById(@RequestHeader("X-Sharer-User-Id") long userId,
         @PathVariable("itemId") long itemId) {
         log.info("Get item by id: {}", itemId);
         return itemClient.getItemById(userId, itemId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAllItemsByUserId(
+    public Mono<ResponseEntity<Object>> getAllItemsByUserId(
         @RequestHeader("X-Sharer-User-Id") long userId,
         @RequestParam(name = "from", defaultValue = "0") Integer from,
         @RequestParam(name = "size", defaultValue = "10") Integer size) {
@@ -41,31 +46,65 @@ public class ItemController {
     }
 
     @PostMapping
-    public ResponseEntity<Object> createItem(@RequestHeader("X-Sharer-User-Id") long userId,
+    public Mono<ResponseEntity<Object>> createItem(@RequestHeader("X-Sharer-User-Id") long userId,
         @Valid @RequestBody ItemDto itemDto) {
         log.info("Create item {} by userId {}", itemDto, userId);
         return itemClient.createItem(userId, itemDto);
     }
 
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> updateItem(@RequestHeader("X-Sharer-User-Id") long userId, @RequestBody ItemDto itemDto,
+    public Mono<ResponseEntity<Object>> updateItem(@RequestHeader("X-Sharer-User-Id") long userId, @RequestBody ItemDto itemDto,
                                 @PathVariable("itemId") long itemId) {
         log.info("Update item {} with id {} by userId {}", itemDto, itemId, userId);
         return itemClient.updateItem(itemId, userId, itemDto);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> searchItem(@RequestParam String text,
+    public Mono<ResponseEntity<Object>> searchItem(@RequestParam String text,
         @RequestParam(name = "from", defaultValue = "0") Integer from,
         @RequestParam(name = "size", defaultValue = "10") Integer size) {
         log.info("Search item by text: {}", text);
         return itemClient.searchItem(text, from, size);
     }
 
+    @GetMapping("/search/available")
+    public Mono<ResponseEntity<Object>> searchAvailableItem(@RequestParam String text,
+        @RequestParam @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime start,
+        @RequestParam @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime end,
+        @RequestParam(name = "from", defaultValue = "0") Integer from,
+        @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        log.info("Search item by text: {} available from {} to {}", text, start, end);
+        if (!start.isBefore(end)) {
+            throw new ValidationException("Начало периода должно быть раньше его окончания");
+        }
+        return itemClient.searchAvailableItem(text, start, end, from, size);
+    }
+
+    @GetMapping("/autocomplete")
+    public Mono<ResponseEntity<Object>> autocomplete(@RequestParam String prefix,
+        @RequestParam(name = "limit", defaultValue = "10") Integer limit) {
+        log.info("Autocomplete item by prefix: {}", prefix);
+        if (limit <= 0) {
+            throw new ValidationException("Количество подсказок должно быть положительным");
+        }
+        return itemClient.autocomplete(prefix.strip().toLowerCase(), limit);
+    }
+
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> addComment(@RequestHeader("X-Sharer-User-Id") long userId, @PathVariable("itemId") long itemId,
+    public Mono<ResponseEntity<Object>> addComment(@RequestHeader("X-Sharer-User-Id") long userId, @PathVariable("itemId") long itemId,
                     @RequestBody CommentDto commentDto) {
         log.info("Add comment {} to itemId {} by userId {}", commentDto, itemId, userId);
         return itemClient.addComment(userId, itemId, commentDto);
     }
+
+    @GetMapping("/{itemId}/comments")
+    public Mono<ResponseEntity<Object>> getComments(@PathVariable("itemId") long itemId,
+        @RequestParam(name = "cursor", required = false) String cursor,
+        @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        log.info("Get comments of itemId {}, cursor={}, size={}", itemId, cursor, size);
+        if (size <= 0) {
+            throw new ValidationException("Размер страницы должен быть положительным");
+        }
+        return itemClient.getComments(itemId, cursor, size);
+    }
 }
\ No newline at end of file
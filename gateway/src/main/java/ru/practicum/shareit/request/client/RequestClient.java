@@ -2,47 +2,55 @@ package ru.practicum.shareit.request.client;
 
 import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ResponseCacheProperties;
+import ru.practicum.shareit.client.ServerTransport;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 @Service
 public class RequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
+    private final ResponseCache responseCache;
+    private final ResponseCacheProperties cacheProperties;
+
     @Autowired
-    public RequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-            builder
-                .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                .build()
-        );
+    public RequestClient(ServerTransport transport, ResponseCache responseCache,
+        ResponseCacheProperties cacheProperties) {
+        super(transport, API_PREFIX);
+        this.responseCache = responseCache;
+        this.cacheProperties = cacheProperties;
     }
 
-    public ResponseEntity<Object> createItemRequest(long userId, ItemRequestDto itemRequestDto) {
-        return post("", userId, itemRequestDto);
+    public Mono<ResponseEntity<Object>> createItemRequest(long userId, ItemRequestDto itemRequestDto) {
+        return post("", userId, itemRequestDto)
+            .doOnNext(response -> {
+                if (response.getStatusCode().is2xxSuccessful()) {
+                    responseCache.invalidate(API_PREFIX + "/all");
+                }
+            });
     }
 
-    public ResponseEntity<Object> getRequestsByUserId(long userId) {
+    public Mono<ResponseEntity<Object>> getRequestsByUserId(long userId) {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> getRequests(long userId, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> getRequests(long userId, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
             "from", from,
             "size", size
         );
 
-        return get("/all?from={from}&size={size}", userId, parameters);
+        // Список чужих запросов: свои запросы пользователя в него не входят, поэтому ключ зависит от userId
+        return cachedGet(responseCache, "requests.all", cacheProperties.getRequestsTtl(),
+            "/all?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getRequestById(long userId, long requestId) {
+    public Mono<ResponseEntity<Object>> getRequestById(long userId, long requestId) {
         return get("/" + requestId, userId);
     }
 }
@@ -12,6 +12,7 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.request.client.RequestClient;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
@@ -23,20 +24,20 @@ public class ItemRequestController {
     private final RequestClient requestClient;
 
     @PostMapping
-    public ResponseEntity<Object> createItemRequest(@RequestHeader("X-Sharer-User-Id") long userId,
+    public Mono<ResponseEntity<Object>> createItemRequest(@RequestHeader("X-Sharer-User-Id") long userId,
         @Valid @RequestBody ItemRequestDto itemRequestDto) {
         log.info("Create item {} by userId {}", itemRequestDto, userId);
         return requestClient.createItemRequest(userId, itemRequestDto);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getRequestsByUserId(@RequestHeader("X-Sharer-User-Id") long userId) {
+    public Mono<ResponseEntity<Object>> getRequestsByUserId(@RequestHeader("X-Sharer-User-Id") long userId) {
         log.info("Get requests by userId {}", userId);
         return requestClient.getRequestsByUserId(userId);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getRequests(
+    public Mono<ResponseEntity<Object>> getRequests(
         @RequestHeader("X-Sharer-User-Id") long userId,
         @RequestParam(name = "from", defaultValue = "0") Integer from,
         @RequestParam(name = "size", defaultValue = "10") Integer size) {
@@ -45,7 +46,7 @@ public class ItemRequestController {
     }
 
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> getRequestById(
+    public Mono<ResponseEntity<Object>> getRequestById(
         @RequestHeader("X-Sharer-User-Id") long userId,
         @PathVariable long requestId) {
         log.info("Get request by id {} by userId {}", requestId, userId);
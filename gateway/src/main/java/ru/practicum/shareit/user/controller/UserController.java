@@ -12,6 +12,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.user.client.UserClient;
 import ru.practicum.shareit.user.dto.UserDto;
 
@@ -23,19 +24,19 @@ public class UserController {
     private final UserClient userClient;
 
     @GetMapping("/{userId}")
-    public ResponseEntity<Object> getUserById(@PathVariable("userId") long userId) {
+    public Mono<ResponseEntity<Object>> getUserById(@PathVariable("userId") long userId) {
         log.info("Get user by id {}", userId);
         return userClient.getUserById(userId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAllUsers() {
+    public Mono<ResponseEntity<Object>> getAllUsers() {
         log.info("Get all users");
         return userClient.getAllUsers();
     }
 
     @PostMapping
-    public ResponseEntity<Object> createUser(@Valid @RequestBody UserDto userDto) {
+    public Mono<ResponseEntity<Object>> createUser(@Valid @RequestBody UserDto userDto) {
         log.info("Create user {}", userDto);
         if (userDto.getEmail() == null) {
             throw new NullPointerException("Поле email не должно быть пустым при создании пользователя");
@@ -44,13 +45,13 @@ public class UserController {
     }
 
     @PatchMapping("/{userId}")
-    public ResponseEntity<Object> updateUser(@Valid @RequestBody UserDto userDto, @PathVariable("userId") long userId) {
+    public Mono<ResponseEntity<Object>> updateUser(@Valid @RequestBody UserDto userDto, @PathVariable("userId") long userId) {
         log.info("Update user {} by userId {}", userDto, userId);
         return userClient.updateUser(userId, userDto);
     }
 
     @DeleteMapping("/{userId}")
-    public ResponseEntity<Object> deleteUser(@PathVariable("userId") long userId) {
+    public Mono<ResponseEntity<Object>> deleteUser(@PathVariable("userId") long userId) {
         log.info("Delete user by id {}", userId);
         return userClient.deleteUser(userId);
     }
@@ -0,0 +1,23 @@
+package ru.practicum.shareit;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.client.ServerTransport;
+import ru.practicum.shareit.client.WebClientTransport;
+
+@SpringBootTest
+@ActiveProfiles("reactive")
+class ShareItReactiveTests {
+	@Autowired
+	private ServerTransport transport;
+
+	@Test
+	void contextLoads() {
+		assertInstanceOf(WebClientTransport.class, transport);
+	}
+
+}
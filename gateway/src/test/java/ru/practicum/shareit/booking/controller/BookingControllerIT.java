@@ -1,12 +1,22 @@
 package ru.practicum.shareit.booking.controller;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -14,8 +24,12 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.client.BookingClient;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingState;
 
 @WebMvcTest(controllers = BookingController.class)
 class BookingControllerIT {
@@ -28,15 +42,30 @@ class BookingControllerIT {
     @MockBean
     private BookingClient bookingClient;
 
+    @Test
+    void getOwnerStats_whenStartNotBeforeEnd_thenStatusBadRequest() throws Exception {
+        mockMvc.perform(get("/bookings/owner/stats")
+                .header("X-Sharer-User-Id", 1)
+                .param("start", "2026-10-01T00:00:00")
+                .param("end", "2026-09-01T00:00:00"))
+            .andExpect(status().isBadRequest());
+
+        verify(bookingClient, never()).getOwnerStats(anyLong(), any(), any());
+    }
+
     @Test
     void getBookingById_whenBookingNotFound_thenStatusNotFound() throws Exception {
         long bookingId = 0L;
 
         when(bookingClient.getBookingById(anyLong(), anyLong()))
-            .thenReturn(ResponseEntity.notFound().build());
+            .thenReturn(Mono.just(ResponseEntity.notFound().build()));
 
-        mockMvc.perform(get("/bookings/{bookingId}", bookingId)
+        MvcResult result = mockMvc.perform(get("/bookings/{bookingId}", bookingId)
                 .header("X-Sharer-User-Id", 1))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
             .andExpect(status().isNotFound());
     }
 
@@ -46,7 +75,7 @@ class BookingControllerIT {
         BookItemRequestDto bookItemRequestDto = new BookItemRequestDto();
 
         when(bookingClient.createBooking(userId, bookItemRequestDto))
-            .thenReturn(ResponseEntity.badRequest().build());
+            .thenReturn(Mono.just(ResponseEntity.badRequest().build()));
 
         mockMvc.perform(post("/bookings")
             .header("X-Sharer-User-Id", userId)
@@ -54,4 +83,82 @@ class BookingControllerIT {
             .content(objectMapper.writeValueAsString(bookItemRequestDto)))
             .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getBookingByUserId_whenCursorGiven_thenRequestBookingPage() throws Exception {
+        long userId = 1L;
+
+        when(bookingClient.getBookingPageByUserId(userId, BookingState.ALL, "", 10))
+            .thenReturn(Mono.just(ResponseEntity.ok().build()));
+
+        MvcResult result = mockMvc.perform(get("/bookings")
+                .header("X-Sharer-User-Id", userId)
+                .param("cursor", ""))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk());
+
+        verify(bookingClient, never()).getBookingByUserId(anyLong(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void createBookings_whenRowNotValid_thenStatusBadRequest() throws Exception {
+        BookItemRequestDto valid = new BookItemRequestDto(1L, LocalDateTime.now().plusDays(1),
+            LocalDateTime.now().plusDays(2));
+        BookItemRequestDto withoutDates = new BookItemRequestDto();
+
+        mockMvc.perform(post("/bookings/batch")
+            .header("X-Sharer-User-Id", 1)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(List.of(valid, withoutDates))))
+            .andExpect(status().isBadRequest());
+
+        verify(bookingClient, never()).createBookings(anyLong(), any());
+    }
+
+    @Test
+    void createBookings_whenBatchEmpty_thenStatusBadRequest() throws Exception {
+        mockMvc.perform(post("/bookings/batch")
+            .header("X-Sharer-User-Id", 1)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("[]"))
+            .andExpect(status().isBadRequest());
+
+        verify(bookingClient, never()).createBookings(anyLong(), any());
+    }
+
+    @Test
+    void exportBookingsByUserId_whenServerStreamsNdjson_thenPassLinesThrough() throws Exception {
+        when(bookingClient.exportBookingsByUserId(1L, "ndjson"))
+            .thenReturn(Mono.just(ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson;charset=UTF-8"))
+                .body(Flux.just("{\"id\":1,\"item\":\"Дрель\"}\n", "{\"id\":2}\n"))));
+
+        MvcResult result = mockMvc.perform(get("/bookings/export")
+                .header("X-Sharer-User-Id", 1))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        MvcResult streamed = mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andReturn();
+        // Строки пишутся асинхронно, ждём завершения потока
+        streamed.getAsyncResult();
+
+        assertEquals("application/x-ndjson;charset=UTF-8", streamed.getResponse().getContentType());
+        assertEquals("{\"id\":1,\"item\":\"Дрель\"}\n{\"id\":2}\n",
+            streamed.getResponse().getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void exportBookingsByUserId_whenFormatUnknown_thenStatusBadRequest() throws Exception {
+        mockMvc.perform(get("/bookings/export")
+                .header("X-Sharer-User-Id", 1)
+                .param("format", "xml"))
+            .andExpect(status().isBadRequest());
+
+        verify(bookingClient, never()).exportBookingsByUserId(anyLong(), any());
+    }
+}
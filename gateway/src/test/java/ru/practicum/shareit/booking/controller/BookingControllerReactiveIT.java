@@ -0,0 +1,52 @@
+package ru.practicum.shareit.booking.controller;
+
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.client.BookingClient;
+
+@WebFluxTest(controllers = BookingController.class)
+class BookingControllerReactiveIT {
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private BookingClient bookingClient;
+
+    @Test
+    void exportBookingsByUserId_whenServerStreamsCsv_thenPassLinesThrough() {
+        when(bookingClient.exportBookingsByUserId(1L, "csv"))
+            .thenReturn(Mono.just(ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/csv;charset=UTF-8"))
+                .body(Flux.just("id,item_name\n", "1,Дрель\n"))));
+
+        webTestClient.get().uri("/bookings/export?format=csv")
+            .header("X-Sharer-User-Id", "1")
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentType("text/csv;charset=UTF-8")
+            .expectBody(String.class).isEqualTo("id,item_name\n1,Дрель\n");
+    }
+
+    @Test
+    void exportBookingsByUserId_whenServerStreamsNdjson_thenLinesNotReencoded() {
+        when(bookingClient.exportBookingsByUserId(1L, "ndjson"))
+            .thenReturn(Mono.just(ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson;charset=UTF-8"))
+                .body(Flux.just("{\"id\":1}\n", "{\"id\":2}\n"))));
+
+        webTestClient.get().uri("/bookings/export")
+            .header("X-Sharer-User-Id", "1")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(String.class).isEqualTo("{\"id\":1}\n{\"id\":2}\n");
+    }
+}
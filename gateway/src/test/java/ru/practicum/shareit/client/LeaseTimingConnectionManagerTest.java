@@ -0,0 +1,47 @@
+package ru.practicum.shareit.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.routing.HttpRoute;
+import org.junit.jupiter.api.Test;
+
+class LeaseTimingConnectionManagerTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final HttpRoute route = new HttpRoute(new HttpHost("localhost", 9090));
+
+    @Test
+    void requestConnection_whenLeased_thenLeaseTimeRecorded() throws Exception {
+        LeaseTimingConnectionManager connectionManager = new LeaseTimingConnectionManager(meterRegistry, "test");
+
+        connectionManager.requestConnection(route, null).get(1, TimeUnit.SECONDS);
+
+        assertEquals(1, leaseTimer().count());
+        assertEquals(1, connectionManager.getTotalStats().getLeased());
+        connectionManager.close();
+    }
+
+    @Test
+    void requestConnection_whenPoolExhausted_thenWaitRecordedAndTimeoutThrown() throws Exception {
+        LeaseTimingConnectionManager connectionManager = new LeaseTimingConnectionManager(meterRegistry, "test");
+        connectionManager.setMaxTotal(1);
+        connectionManager.setDefaultMaxPerRoute(1);
+        connectionManager.requestConnection(route, null).get(1, TimeUnit.SECONDS);
+
+        assertThrows(ConnectionPoolTimeoutException.class,
+            () -> connectionManager.requestConnection(route, null).get(50, TimeUnit.MILLISECONDS));
+
+        assertEquals(2, leaseTimer().count());
+        assertEquals(1, connectionManager.getTotalStats().getLeased());
+        connectionManager.close();
+    }
+
+    private Timer leaseTimer() {
+        return meterRegistry.get("httpcomponents.httpclient.pool.lease").tag("httpclient", "test").timer();
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.shareit.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+class RequestCoalescerTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger serverCalls = new AtomicInteger();
+    private final Sinks.One<ResponseEntity<Object>> serverResponse = Sinks.one();
+
+    @Test
+    void execute_whenSameKeyInFlight_thenOneServerCallSharedByAll() {
+        RequestCoalescer coalescer = coalescer(Set.of("items.search"));
+        List<ResponseEntity<Object>> received = new ArrayList<>();
+
+        coalescer.execute("items.search", "/items/search?text=дрель", this::callServer).subscribe(received::add);
+        coalescer.execute("items.search", "/items/search?text=дрель", this::callServer).subscribe(received::add);
+        serverResponse.tryEmitValue(ResponseEntity.ok("[]"));
+
+        assertEquals(1, serverCalls.get());
+        assertEquals(List.of(ResponseEntity.ok("[]"), ResponseEntity.ok("[]")), received);
+        assertEquals(1, requests("items.search", "leader"));
+        assertEquals(1, requests("items.search", "follower"));
+    }
+
+    @Test
+    void execute_whenPreviousCallCompleted_thenNewServerCall() {
+        RequestCoalescer coalescer = coalescer(Set.of("items.search"));
+        serverResponse.tryEmitValue(ResponseEntity.ok("[]"));
+
+        coalescer.execute("items.search", "/items/search?text=дрель", this::callServer).block();
+        coalescer.execute("items.search", "/items/search?text=дрель", this::callServer).block();
+
+        assertEquals(2, serverCalls.get());
+        assertEquals(2, requests("items.search", "leader"));
+    }
+
+    @Test
+    void execute_whenRouteNotConfigured_thenNotCoalesced() {
+        RequestCoalescer coalescer = coalescer(Set.of());
+
+        coalescer.execute("items.get", "/items/1||1", this::callServer).subscribe();
+        coalescer.execute("items.get", "/items/1||1", this::callServer).subscribe();
+
+        assertEquals(2, serverCalls.get());
+    }
+
+    private Mono<ResponseEntity<Object>> callServer() {
+        return Mono.defer(() -> {
+            serverCalls.incrementAndGet();
+            return serverResponse.asMono();
+        });
+    }
+
+    private RequestCoalescer coalescer(Set<String> routes) {
+        CoalescingProperties properties = new CoalescingProperties();
+        properties.setRoutes(routes);
+        return new RequestCoalescer(properties, meterRegistry);
+    }
+
+    private double requests(String route, String role) {
+        return meterRegistry.get("shareit.gateway.coalescing.requests").tag("route", route).tag("role", role)
+            .counter().count();
+    }
+}
@@ -0,0 +1,120 @@
+package ru.practicum.shareit.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+
+class ResponseCacheTest {
+    private static final Duration TTL = Duration.ofSeconds(5);
+
+    private final AtomicLong now = new AtomicLong();
+    private final List<HttpHeaders> sentHeaders = new ArrayList<>();
+    private final ResponseCache cache = new ResponseCache(new ResponseCacheProperties(),
+        new RequestCoalescer(new CoalescingProperties(), new SimpleMeterRegistry()), now::get);
+
+    @Test
+    void get_whenFresh_thenServerNotCalled() {
+        ResponseEntity<Object> ok = ok("{\"id\":1}", null);
+
+        assertEquals(ok, cache.get("items.get", "/items/1||1", TTL, respond(ok)).block());
+        assertEquals(ok, cache.get("items.get", "/items/1||1", TTL, respond(ok("{\"id\":2}", null))).block());
+
+        assertEquals(1, sentHeaders.size());
+    }
+
+    @Test
+    void get_whenDifferentUsers_thenCachedSeparately() {
+        cache.get("items.get", "/items/1||1", TTL, respond(ok("{\"owner\":true}", null))).block();
+
+        ResponseEntity<Object> response = cache.get("items.get", "/items/1||2", TTL, respond(ok("{\"owner\":false}", null)))
+            .block();
+
+        assertEquals("{\"owner\":false}", body(response));
+        assertEquals(2, sentHeaders.size());
+    }
+
+    @Test
+    void get_whenStaleAndNotModified_thenRevalidatedWithEtag() {
+        ResponseEntity<Object> ok = ok("{\"id\":1}", "\"abc\"");
+        cache.get("items.get", "/items/1||1", TTL, respond(ok)).block();
+        advance(TTL.plusSeconds(1));
+
+        ResponseEntity<Object> response = cache.get("items.get", "/items/1||1", TTL,
+            respond(ResponseEntity.status(HttpStatus.NOT_MODIFIED).build())).block();
+
+        assertEquals(ok, response);
+        assertEquals("\"abc\"", sentHeaders.get(1).getFirst(HttpHeaders.IF_NONE_MATCH));
+
+        cache.get("items.get", "/items/1||1", TTL, respond(ok("{\"id\":2}", null))).block();
+        assertEquals(2, sentHeaders.size());
+    }
+
+    @Test
+    void get_whenStaleWithoutEtag_thenReloadedWithoutCondition() {
+        cache.get("items.get", "/items/1||1", TTL, respond(ok("{\"id\":1}", null))).block();
+        advance(TTL.plusSeconds(1));
+
+        ResponseEntity<Object> response = cache.get("items.get", "/items/1||1", TTL, respond(ok("{\"id\":2}", null))).block();
+
+        assertEquals("{\"id\":2}", body(response));
+        assertNull(sentHeaders.get(1).getFirst(HttpHeaders.IF_NONE_MATCH));
+    }
+
+    @Test
+    void get_whenServerRespondsError_thenNotCached() {
+        cache.get("items.get", "/items/1||1", TTL, respond(ResponseEntity.notFound().build())).block();
+        cache.get("items.get", "/items/1||1", TTL, respond(ResponseEntity.notFound().build())).block();
+
+        assertEquals(2, sentHeaders.size());
+    }
+
+    @Test
+    void invalidate_whenPrefixMatches_thenOnlyMatchingEntriesRemoved() {
+        cache.get("items.get", "/items/1||1", TTL, respond(ok("{\"id\":1}", null))).block();
+        cache.get("items.get", "/items/1||2", TTL, respond(ok("{\"id\":1}", null))).block();
+        cache.get("items.get", "/items/10||1", TTL, respond(ok("{\"id\":10}", null))).block();
+
+        cache.invalidate("/items/1|");
+        cache.get("items.get", "/items/1||1", TTL, respond(ok("{\"id\":1}", null))).block();
+        cache.get("items.get", "/items/10||1", TTL, respond(ok("{\"id\":10}", null))).block();
+
+        assertEquals(4, sentHeaders.size());
+    }
+
+    private Function<HttpHeaders, Mono<ResponseEntity<Object>>> respond(
+        ResponseEntity<Object> response) {
+        return headers -> {
+            sentHeaders.add(headers);
+            return Mono.just(response);
+        };
+    }
+
+    private void advance(Duration duration) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(duration.toMillis()));
+    }
+
+    private static ResponseEntity<Object> ok(String json, String etag) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (etag != null) {
+            builder.eTag(etag);
+        }
+        return builder.body(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String body(ResponseEntity<Object> response) {
+        return new String((byte[]) response.getBody(), StandardCharsets.UTF_8);
+    }
+}
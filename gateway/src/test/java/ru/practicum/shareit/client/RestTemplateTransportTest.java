@@ -0,0 +1,129 @@
+package ru.practicum.shareit.client;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Flux;
+
+class RestTemplateTransportTest {
+    private MockRestServiceServer server;
+    private RestTemplateTransport transport;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.setUriTemplateHandler(new DefaultUriBuilderFactory("http://localhost:9090"));
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        transport = new RestTemplateTransport(restTemplate);
+    }
+
+    @Test
+    void exchange_whenServerRespondsOk_thenReturnRawBodyWithContentType() {
+        String json = "{\"id\":1,\"name\":\"Дрель\"}";
+        server.expect(requestTo("http://localhost:9090/items/1"))
+            .andExpect(header("X-Sharer-User-Id", "3"))
+            .andRespond(withSuccess(json, MediaType.APPLICATION_JSON));
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", "3");
+
+        ResponseEntity<Object> response = transport.exchange(HttpMethod.GET, "/items/{id}", headers,
+            Map.of("id", 1), null).block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertArrayEquals(json.getBytes(StandardCharsets.UTF_8), (byte[]) response.getBody());
+        server.verify();
+    }
+
+    @Test
+    void exchange_whenServerSendsCursorHeader_thenForwardItWithoutLengthHeader() {
+        HttpHeaders serverHeaders = new HttpHeaders();
+        serverHeaders.set("X-Next-Cursor", "MjAyNi0xMC0xOFQxMDowMHw3");
+        serverHeaders.set(HttpHeaders.CONNECTION, "keep-alive");
+        server.expect(requestTo("http://localhost:9090/items/1/comments"))
+            .andRespond(withSuccess("[]", MediaType.APPLICATION_JSON).headers(serverHeaders));
+
+        ResponseEntity<Object> response = transport.exchange(HttpMethod.GET, "/items/1/comments", new HttpHeaders(),
+            null, null).block();
+
+        assertEquals("MjAyNi0xMC0xOFQxMDowMHw3", response.getHeaders().getFirst("X-Next-Cursor"));
+        assertFalse(response.getHeaders().containsKey(HttpHeaders.CONNECTION));
+        assertFalse(response.getHeaders().containsKey(HttpHeaders.CONTENT_LENGTH));
+    }
+
+    @Test
+    void exchange_whenServerRespondsError_thenReturnStatusAndRawBody() {
+        String error = "{\"error\":\"Не найдена вещь с id:1\"}";
+        server.expect(requestTo("http://localhost:9090/items/1"))
+            .andRespond(withStatus(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON).body(error));
+
+        ResponseEntity<Object> response = transport.exchange(HttpMethod.GET, "/items/1", new HttpHeaders(),
+            null, null).block();
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertArrayEquals(error.getBytes(StandardCharsets.UTF_8), (byte[]) response.getBody());
+    }
+
+    @Test
+    void exchange_whenServerRespondsWithoutBody_thenReturnEmptyResponse() {
+        server.expect(requestTo("http://localhost:9090/users/1"))
+            .andRespond(withStatus(HttpStatus.OK));
+
+        ResponseEntity<Object> response = transport.exchange(HttpMethod.DELETE, "/users/1", new HttpHeaders(),
+            null, null).block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertFalse(response.hasBody());
+    }
+
+    @Test
+    void streamLines_whenServerRespondsNdjson_thenReturnLinesWithContentType() {
+        MediaType ndjson = MediaType.parseMediaType("application/x-ndjson;charset=UTF-8");
+        server.expect(requestTo("http://localhost:9090/bookings/export?format=ndjson"))
+            .andExpect(header("X-Sharer-User-Id", "3"))
+            .andRespond(withSuccess("{\"id\":1}\n{\"id\":2,\"name\":\"Дрель\"}\n", ndjson));
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", "3");
+
+        ResponseEntity<Flux<String>> response = transport.streamLines("/bookings/export?format={format}", headers,
+            Map.of("format", "ndjson")).block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(ndjson, response.getHeaders().getContentType());
+        assertEquals(List.of("{\"id\":1}\n", "{\"id\":2,\"name\":\"Дрель\"}\n"),
+            response.getBody().collectList().block());
+        server.verify();
+    }
+
+    @Test
+    void streamLines_whenServerRespondsError_thenReturnStatusAndBody() {
+        String error = "{\"error\":\"Не найден пользователь с id: 1\"}";
+        server.expect(requestTo("http://localhost:9090/bookings/export"))
+            .andRespond(withStatus(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON).body(error));
+
+        ResponseEntity<Flux<String>> response = transport.streamLines("/bookings/export", new HttpHeaders(), null)
+            .block();
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(List.of(error + "\n"), response.getBody().collectList().block());
+    }
+}
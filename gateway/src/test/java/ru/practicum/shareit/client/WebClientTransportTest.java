@@ -0,0 +1,120 @@
+package ru.practicum.shareit.client;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class WebClientTransportTest {
+    private final AtomicReference<ClientRequest> sentRequest = new AtomicReference<>();
+
+    @Test
+    void exchange_whenServerRespondsOk_thenReturnRawBodyAndExpandedUri() {
+        WebClientTransport transport = transport(ClientResponse.create(HttpStatus.OK)
+            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+            .body("{\"id\":1}")
+            .build());
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", "3");
+
+        ResponseEntity<Object> response = transport.exchange(HttpMethod.GET, "/items/search?text={text}", headers,
+            Map.of("text", "дрель"), null).block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertArrayEquals("{\"id\":1}".getBytes(StandardCharsets.UTF_8), (byte[]) response.getBody());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertEquals("/items/search", sentRequest.get().url().getPath());
+        assertEquals("text=дрель", sentRequest.get().url().getQuery());
+        assertEquals("3", sentRequest.get().headers().getFirst("X-Sharer-User-Id"));
+    }
+
+    @Test
+    void exchange_whenServerSendsCursorHeader_thenForwardItWithoutHopByHopHeaders() {
+        WebClientTransport transport = transport(ClientResponse.create(HttpStatus.OK)
+            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+            .header("X-Next-Cursor", "MjAyNi0xMC0xOFQxMDowMHw3")
+            .header(HttpHeaders.CONNECTION, "keep-alive")
+            .header(HttpHeaders.TRANSFER_ENCODING, "chunked")
+            .body("[]")
+            .build());
+
+        ResponseEntity<Object> response = transport.exchange(HttpMethod.GET, "/bookings?cursor={cursor}",
+            new HttpHeaders(), Map.of("cursor", "MA"), null).block();
+
+        assertEquals("MjAyNi0xMC0xOFQxMDowMHw3", response.getHeaders().getFirst("X-Next-Cursor"));
+        assertFalse(response.getHeaders().containsKey(HttpHeaders.CONNECTION));
+        assertFalse(response.getHeaders().containsKey(HttpHeaders.TRANSFER_ENCODING));
+    }
+
+    @Test
+    void exchange_whenServerRespondsError_thenReturnStatusAndRawBody() {
+        String error = "{\"error\":\"Не найдена вещь с id:1\"}";
+        WebClientTransport transport = transport(ClientResponse.create(HttpStatus.NOT_FOUND)
+            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+            .body(error)
+            .build());
+
+        ResponseEntity<Object> response = transport.exchange(HttpMethod.GET, "/items/1", new HttpHeaders(),
+            null, null).block();
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertArrayEquals(error.getBytes(StandardCharsets.UTF_8), (byte[]) response.getBody());
+    }
+
+    @Test
+    void streamLines_whenServerRespondsNdjson_thenReturnLinesWithContentType() {
+        WebClientTransport transport = transport(ClientResponse.create(HttpStatus.OK)
+            .header(HttpHeaders.CONTENT_TYPE, "application/x-ndjson")
+            .body("{\"id\":1}\n{\"id\":2,\"name\":\"Дрель\"}\n")
+            .build());
+
+        ResponseEntity<Flux<String>> response = transport.streamLines("/bookings/export?format={format}",
+            new HttpHeaders(), Map.of("format", "ndjson")).block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.parseMediaType("application/x-ndjson"), response.getHeaders().getContentType());
+        assertEquals(List.of("{\"id\":1}\n", "{\"id\":2,\"name\":\"Дрель\"}\n"),
+            response.getBody().collectList().block());
+        assertEquals("format=ndjson", sentRequest.get().url().getQuery());
+    }
+
+    @Test
+    void streamLines_whenServerRespondsError_thenReturnStatusAndBody() {
+        String error = "{\"error\":\"Не найден пользователь с id: 1\"}";
+        WebClientTransport transport = transport(ClientResponse.create(HttpStatus.NOT_FOUND)
+            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+            .body(error)
+            .build());
+
+        ResponseEntity<Flux<String>> response = transport.streamLines("/bookings/export", new HttpHeaders(), null)
+            .block();
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(List.of(error + "\n"), response.getBody().collectList().block());
+    }
+
+    private WebClientTransport transport(ClientResponse response) {
+        return new WebClientTransport(WebClient.builder()
+            .baseUrl("http://localhost:9090")
+            .exchangeFunction(request -> {
+                sentRequest.set(request);
+                return Mono.just(response);
+            })
+            .build());
+    }
+}
@@ -1,8 +1,11 @@
 package ru.practicum.shareit.item.controller;
 
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -13,6 +16,8 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.item.client.ItemClient;
 import ru.practicum.shareit.item.dto.ItemDto;
 
@@ -33,10 +38,14 @@ class ItemControllerIT {
         long userId = 0L;
 
         when(itemClient.getItemById(userId, itemId))
-            .thenReturn(ResponseEntity.notFound().build());
+            .thenReturn(Mono.just(ResponseEntity.notFound().build()));
 
-        mockMvc.perform(get("/items/{itemId}", itemId)
+        MvcResult result = mockMvc.perform(get("/items/{itemId}", itemId)
             .header("X-Sharer-User-Id", userId))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
             .andExpect(status().isNotFound());
     }
 
@@ -46,7 +55,7 @@ class ItemControllerIT {
         ItemDto itemDto = new ItemDto();
 
         when(itemClient.createItem(userId, itemDto))
-            .thenReturn(ResponseEntity.badRequest().build());
+            .thenReturn(Mono.just(ResponseEntity.badRequest().build()));
 
         mockMvc.perform(post("/items")
             .header("X-Sharer-User-Id", userId)
@@ -54,4 +63,45 @@ class ItemControllerIT {
             .content(objectMapper.writeValueAsString(itemDto)))
             .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @Test
+    void searchAvailableItem_whenStartAfterEnd_thenStatusBadRequest() throws Exception {
+        mockMvc.perform(get("/items/search/available")
+            .param("text", "item")
+            .param("start", "2030-01-02T10:00:00")
+            .param("end", "2030-01-01T10:00:00"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void autocomplete_whenPrefixGiven_thenNormalizePrefixForCache() throws Exception {
+        when(itemClient.autocomplete("дре", 5))
+            .thenReturn(Mono.just(ResponseEntity.ok().build()));
+
+        MvcResult result = mockMvc.perform(get("/items/autocomplete")
+            .param("prefix", " Дре ")
+            .param("limit", "5"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk());
+
+        verify(itemClient).autocomplete("дре", 5);
+    }
+
+    @Test
+    void autocomplete_whenLimitNotPositive_thenStatusBadRequest() throws Exception {
+        mockMvc.perform(get("/items/autocomplete")
+            .param("prefix", "дре")
+            .param("limit", "0"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getComments_whenSizeNotPositive_thenStatusBadRequest() throws Exception {
+        mockMvc.perform(get("/items/{itemId}/comments", 1L)
+            .param("size", "0"))
+            .andExpect(status().isBadRequest());
+    }
+}
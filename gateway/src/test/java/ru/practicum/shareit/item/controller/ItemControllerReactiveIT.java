@@ -0,0 +1,62 @@
+package ru.practicum.shareit.item.controller;
+
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.item.client.ItemClient;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+@WebFluxTest(controllers = ItemController.class)
+class ItemControllerReactiveIT {
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ItemClient itemClient;
+
+    @Test
+    void getItemById_whenItemNotFound_thenStatusNotFound() {
+        when(itemClient.getItemById(1L, 2L))
+            .thenReturn(Mono.just(ResponseEntity.notFound().build()));
+
+        webTestClient.get().uri("/items/{itemId}", 2L)
+            .header("X-Sharer-User-Id", "1")
+            .exchange()
+            .expectStatus().isNotFound();
+    }
+
+    @Test
+    void getItemById_whenUserHeaderMissing_thenStatusBadRequest() {
+        webTestClient.get().uri("/items/{itemId}", 2L)
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void createItem_whenFieldsNotValid_thenStatusBadRequest() {
+        webTestClient.post().uri("/items")
+            .header("X-Sharer-User-Id", "1")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(new ItemDto())
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void searchAvailableItem_whenStartAfterEnd_thenStatusBadRequest() {
+        webTestClient.get().uri(uriBuilder -> uriBuilder.path("/items/search/available")
+                .queryParam("text", "item")
+                .queryParam("start", "2030-01-02T10:00:00")
+                .queryParam("end", "2030-01-01T10:00:00")
+                .build())
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+}
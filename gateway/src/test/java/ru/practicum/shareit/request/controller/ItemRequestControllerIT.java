@@ -1,8 +1,10 @@
 package ru.practicum.shareit.request.controller;
 
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -13,6 +15,8 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.request.client.RequestClient;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
@@ -32,10 +36,14 @@ class ItemRequestControllerIT {
         long userId = 0L;
 
         when(requestClient.getRequestById(userId, requestId))
-            .thenReturn(ResponseEntity.notFound().build());
+            .thenReturn(Mono.just(ResponseEntity.notFound().build()));
 
-        mockMvc.perform(get("/requests/{requestId}", requestId)
+        MvcResult result = mockMvc.perform(get("/requests/{requestId}", requestId)
             .header("X-Sharer-User-Id", userId))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
             .andExpect(status().isNotFound());
     }
 
@@ -45,7 +53,7 @@ class ItemRequestControllerIT {
         ItemRequestDto itemRequestDto = new ItemRequestDto();
 
         when(requestClient.createItemRequest(userId, itemRequestDto))
-            .thenReturn(ResponseEntity.badRequest().build());
+            .thenReturn(Mono.just(ResponseEntity.badRequest().build()));
 
         mockMvc.perform(post("/requests")
             .header("X-Sharer-User-Id", userId)
@@ -1,8 +1,10 @@
 package ru.practicum.shareit.user.controller;
 
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -13,6 +15,8 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.user.client.UserClient;
 import ru.practicum.shareit.user.dto.UserDto;
 
@@ -32,9 +36,13 @@ class UserControllerIT {
         long userId = 0L;
 
         when(userClient.getUserById(userId))
-            .thenReturn(ResponseEntity.notFound().build());
+            .thenReturn(Mono.just(ResponseEntity.notFound().build()));
 
-        mockMvc.perform(get("/users/{userId}", userId))
+        MvcResult result = mockMvc.perform(get("/users/{userId}", userId))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
             .andExpect(status().isNotFound());
     }
 
@@ -43,7 +51,7 @@ class UserControllerIT {
         UserDto userDto = new UserDto();
 
         when(userClient.createUser(userDto))
-            .thenReturn(ResponseEntity.badRequest().build());
+            .thenReturn(Mono.just(ResponseEntity.badRequest().build()));
 
         mockMvc.perform(post("/users")
             .contentType(MediaType.APPLICATION_JSON)
@@ -1,7 +1,10 @@
 package ru.practicum.shareit.booking.controller;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -11,14 +14,21 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingExportFormat;
 import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.dto.OwnerBookingStatsDto;
 import ru.practicum.shareit.booking.service.BookingService;
 
 @RestController
 @RequestMapping("/bookings")
 @RequiredArgsConstructor
 public class BookingController {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final BookingService service;
 
     @GetMapping("/{bookingId}")
@@ -28,6 +38,13 @@ public class BookingController {
         return service.getBookingById(bookingId, userId);
     }
 
+    @GetMapping("/batch")
+    public List<BookingInfoDto> getBookingsByIds(@RequestHeader("X-Sharer-User-Id") long userId,
+        @RequestParam(name = "ids") List<Long> bookingIds) {
+
+        return service.getBookingsByIds(bookingIds, userId);
+    }
+
     @GetMapping
     public List<BookingInfoDto> getBookingByUserId(
         @RequestHeader("X-Sharer-User-Id") long userId,
@@ -38,6 +55,17 @@ public class BookingController {
         return service.getBookingByUserId(userId, state, from, size);
     }
 
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBookingsByUserId(
+        @RequestHeader("X-Sharer-User-Id") long userId,
+        @RequestParam(name = "format", defaultValue = "ndjson") String format) {
+        BookingExportFormat exportFormat = BookingExportFormat.from(format);
+
+        return ResponseEntity.ok()
+            .contentType(exportFormat.getMediaType())
+            .body(service.exportBookingsByUserId(userId, exportFormat)::writeTo);
+    }
+
     @GetMapping("/owner")
     public List<BookingInfoDto> getBookingByOwnerId(
         @RequestHeader("X-Sharer-User-Id") long userId,
@@ -48,6 +76,37 @@ public class BookingController {
         return service.getBookingByOwnerId(userId, state, from, size);
     }
 
+    @GetMapping("/owner/stats")
+    public OwnerBookingStatsDto getOwnerStats(
+        @RequestHeader("X-Sharer-User-Id") long userId,
+        @RequestParam(name = "start", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        LocalDateTime start,
+        @RequestParam(name = "end", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        LocalDateTime end) {
+
+        return service.getOwnerStats(userId, start, end);
+    }
+
+    @GetMapping(params = "cursor")
+    public ResponseEntity<List<BookingInfoDto>> getBookingPageByUserId(
+        @RequestHeader("X-Sharer-User-Id") long userId,
+        @RequestParam(name = "state", defaultValue = "ALL") String state,
+        @RequestParam(name = "cursor") String cursor,
+        @RequestParam(name = "size", defaultValue = "10") Integer size) {
+
+        return toResponse(service.getBookingPageByUserId(userId, state, cursor, size));
+    }
+
+    @GetMapping(path = "/owner", params = "cursor")
+    public ResponseEntity<List<BookingInfoDto>> getBookingPageByOwnerId(
+        @RequestHeader("X-Sharer-User-Id") long userId,
+        @RequestParam(name = "state", defaultValue = "ALL") String state,
+        @RequestParam(name = "cursor") String cursor,
+        @RequestParam(name = "size", defaultValue = "10") Integer size) {
+
+        return toResponse(service.getBookingPageByOwnerId(userId, state, cursor, size));
+    }
+
     @PostMapping
     public BookingInfoDto createBooking(@RequestHeader("X-Sharer-User-Id") long userId,
         @RequestBody BookingDto bookingDto) {
@@ -55,6 +114,13 @@ public class BookingController {
         return service.createBooking(userId, bookingDto);
     }
 
+    @PostMapping("/batch")
+    public List<BookingBatchResultDto> createBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+        @RequestBody List<BookingDto> bookingDtos) {
+
+        return service.createBookings(userId, bookingDtos);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingInfoDto approvedBooking(@RequestHeader("X-Sharer-User-Id") long ownerId,
             @PathVariable("bookingId") long bookingId,
@@ -62,4 +128,14 @@ public class BookingController {
 
         return service.approveBooking(ownerId, bookingId, approved);
     }
+
+    private ResponseEntity<List<BookingInfoDto>> toResponse(BookingPageDto bookingPage) {
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.ok();
+
+        if (bookingPage.getNextCursor() != null) {
+            responseBuilder.header(NEXT_CURSOR_HEADER, bookingPage.getNextCursor());
+        }
+
+        return responseBuilder.body(bookingPage.getBookings());
+    }
 }
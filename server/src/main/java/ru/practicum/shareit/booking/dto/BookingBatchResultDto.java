@@ -0,0 +1,24 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Результат одной строки пакетного создания аренд: либо созданная аренда, либо причина отказа.
+ */
+@Data
+@AllArgsConstructor
+public class BookingBatchResultDto {
+    // Позиция строки в запросе
+    private int index;
+    private BookingInfoDto booking;
+    private String error;
+
+    public static BookingBatchResultDto created(int index, BookingInfoDto booking) {
+        return new BookingBatchResultDto(index, booking, null);
+    }
+
+    public static BookingBatchResultDto failed(int index, String error) {
+        return new BookingBatchResultDto(index, null, error);
+    }
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.nio.charset.StandardCharsets;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import ru.practicum.shareit.exception.ValidationException;
+
+@Getter
+@RequiredArgsConstructor
+public enum BookingExportFormat {
+    // Одна аренда (BookingInfoDto) - одна строка JSON
+    NDJSON(new MediaType("application", "x-ndjson", StandardCharsets.UTF_8)),
+    CSV(new MediaType("text", "csv", StandardCharsets.UTF_8));
+
+    private final MediaType mediaType;
+
+    public static BookingExportFormat from(String formatParam) {
+        for (BookingExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(formatParam)) {
+                return format;
+            }
+        }
+
+        throw new ValidationException("Неизвестный формат выгрузки: " + formatParam);
+    }
+}
@@ -0,0 +1,51 @@
+package ru.practicum.shareit.booking.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Построчная запись аренд в выгрузку: строка пишется сразу в {@link Writer}, в памяти ничего не копится.
+ */
+public class BookingExportWriter {
+    static final String CSV_HEADER = "id,start,end,status,item_id,item_name,booker_id";
+
+    private final BookingExportFormat format;
+    private final Writer writer;
+    private final ObjectMapper objectMapper;
+
+    public BookingExportWriter(BookingExportFormat format, Writer writer, ObjectMapper objectMapper) {
+        this.format = format;
+        this.writer = writer;
+        this.objectMapper = objectMapper;
+    }
+
+    public void writeHeader() throws IOException {
+        if (format == BookingExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+    }
+
+    public void write(BookingInfoDto booking) throws IOException {
+        if (format == BookingExportFormat.NDJSON) {
+            writer.write(objectMapper.writeValueAsString(booking));
+        } else {
+            writer.write(booking.getId() + "," + booking.getStart() + "," + booking.getEnd() + ","
+                + booking.getStatus() + "," + booking.getItem().getId() + "," + csvField(booking.getItem().getName())
+                + "," + booking.getBooker().getId());
+        }
+        writer.write('\n');
+    }
+
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    private static String csvField(String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
@@ -1,7 +1,16 @@
 package ru.practicum.shareit.booking.dto;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import lombok.experimental.UtilityClass;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.storage.ItemBookingStatsView;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.user.dto.UserMapper;
 
@@ -28,4 +37,63 @@ public class BookingMapper {
 
         return booking;
     }
+
+    public ItemBookingStatsDto toItemBookingStatsDto(ItemBookingStatsView stats, Duration window) {
+        ItemBookingStatsDto itemBookingStatsDto = new ItemBookingStatsDto();
+        Map<BookingState, Long> counts = new EnumMap<>(BookingState.class);
+        double bookedHours = stats.getBookedSeconds() / 3600;
+
+        counts.put(BookingState.ALL, stats.getAllCount());
+        counts.put(BookingState.CURRENT, stats.getCurrentCount());
+        counts.put(BookingState.PAST, stats.getPastCount());
+        counts.put(BookingState.FUTURE, stats.getFutureCount());
+        counts.put(BookingState.WAITING, stats.getWaitingCount());
+        counts.put(BookingState.REJECTED, stats.getRejectedCount());
+
+        itemBookingStatsDto.setItemId(stats.getItemId());
+        itemBookingStatsDto.setItemName(stats.getItemName());
+        itemBookingStatsDto.setCounts(counts);
+        itemBookingStatsDto.setBookedHours(round(bookedHours));
+        itemBookingStatsDto.setUtilization(round(percent(bookedHours, window.getSeconds() / 3600.0)));
+        if (stats.getNextBookingId() != null) {
+            itemBookingStatsDto.setNextBooking(new NextBookingDto(stats.getNextBookingId(), stats.getItemId(),
+                stats.getNextBookerId(), stats.getNextBookingStart()));
+        }
+
+        return itemBookingStatsDto;
+    }
+
+    public OwnerBookingStatsDto toOwnerBookingStatsDto(LocalDateTime start, LocalDateTime end,
+        List<ItemBookingStatsDto> items) {
+        OwnerBookingStatsDto ownerBookingStatsDto = new OwnerBookingStatsDto();
+        Map<BookingState, Long> counts = new EnumMap<>(BookingState.class);
+        double bookedHours = items.stream().mapToDouble(ItemBookingStatsDto::getBookedHours).sum();
+        double windowHours = Duration.between(start, end).getSeconds() / 3600.0;
+
+        for (BookingState state : BookingState.values()) {
+            counts.put(state, items.stream().mapToLong(item -> item.getCounts().get(state)).sum());
+        }
+
+        ownerBookingStatsDto.setStart(start);
+        ownerBookingStatsDto.setEnd(end);
+        ownerBookingStatsDto.setCounts(counts);
+        ownerBookingStatsDto.setBookedHours(round(bookedHours));
+        ownerBookingStatsDto.setUtilization(round(percent(bookedHours, windowHours * items.size())));
+        ownerBookingStatsDto.setNextBooking(items.stream()
+            .map(ItemBookingStatsDto::getNextBooking)
+            .filter(Objects::nonNull)
+            .min(Comparator.comparing(NextBookingDto::getStart).thenComparing(NextBookingDto::getId))
+            .orElse(null));
+        ownerBookingStatsDto.setItems(items);
+
+        return ownerBookingStatsDto;
+    }
+
+    private double percent(double part, double whole) {
+        return whole == 0 ? 0 : part * 100 / whole;
+    }
+
+    private double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
 }
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BookingPageDto {
+    private List<BookingInfoDto> bookings;
+    private String nextCursor;
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.util.Map;
+import lombok.Data;
+import ru.practicum.shareit.booking.model.BookingState;
+
+@Data
+public class ItemBookingStatsDto {
+    private long itemId;
+    private String itemName;
+    private Map<BookingState, Long> counts;
+    // Часы подтверждённых аренд внутри окна и их доля от длины окна в процентах
+    private double bookedHours;
+    private double utilization;
+    private NextBookingDto nextBooking;
+}
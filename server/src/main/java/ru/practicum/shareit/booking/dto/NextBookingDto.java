@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class NextBookingDto {
+    private long id;
+    private long itemId;
+    private long bookerId;
+    private LocalDateTime start;
+}
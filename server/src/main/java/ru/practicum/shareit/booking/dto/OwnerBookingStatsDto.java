@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import lombok.Data;
+import ru.practicum.shareit.booking.model.BookingState;
+
+@Data
+public class OwnerBookingStatsDto {
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private Map<BookingState, Long> counts;
+    // Загрузка считается от суммарной длины окна по всем вещам владельца
+    private double bookedHours;
+    private double utilization;
+    private NextBookingDto nextBooking;
+    private List<ItemBookingStatsDto> items;
+}
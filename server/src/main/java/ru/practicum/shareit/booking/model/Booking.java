@@ -13,6 +13,9 @@ import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.NamedAttributeNode;
 import javax.persistence.NamedEntityGraph;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
@@ -33,7 +36,8 @@ import ru.practicum.shareit.user.model.User;
         attributeNodes = {@NamedAttributeNode("item"), @NamedAttributeNode("booker")})
 public class Booking {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     @Column(name = "booking_id")
     @EqualsAndHashCode.Include
     private long id;
@@ -54,4 +58,14 @@ public class Booking {
 
     @Enumerated(EnumType.STRING)
     private BookingStatus status;
+
+    // Дальше по времени фазу двигает BookingPhaseScheduler массовыми обновлениями в обход этих колбэков
+    @Enumerated(EnumType.STRING)
+    private BookingPhase phase;
+
+    @PrePersist
+    @PreUpdate
+    void updatePhase() {
+        phase = BookingPhase.at(start, end, LocalDateTime.now());
+    }
 }
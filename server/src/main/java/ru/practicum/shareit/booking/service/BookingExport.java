@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Подготовленная выгрузка аренд: проверки уже выполнены, данные читаются из базы и пишутся
+ * в {@code out} только при вызове {@link #writeTo}.
+ */
+@FunctionalInterface
+public interface BookingExport {
+    void writeTo(OutputStream out) throws IOException;
+}
@@ -1,18 +1,34 @@
 package ru.practicum.shareit.booking.service;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingExportFormat;
 import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.dto.OwnerBookingStatsDto;
 
 public interface BookingService {
     BookingInfoDto getBookingById(long bookingId, long userId);
 
+    List<BookingInfoDto> getBookingsByIds(List<Long> bookingIds, long userId);
+
     List<BookingInfoDto> getBookingByUserId(long bookerId, String stateParameter, Integer from, Integer size);
 
     List<BookingInfoDto> getBookingByOwnerId(long ownerId, String stateParameter, Integer from, Integer size);
 
+    BookingPageDto getBookingPageByUserId(long bookerId, String stateParameter, String cursor, Integer size);
+
+    BookingPageDto getBookingPageByOwnerId(long ownerId, String stateParameter, String cursor, Integer size);
+
+    OwnerBookingStatsDto getOwnerStats(long ownerId, LocalDateTime start, LocalDateTime end);
+
+    BookingExport exportBookingsByUserId(long bookerId, BookingExportFormat format);
+
     BookingInfoDto createBooking(long userId, BookingDto bookingDto);
 
+    List<BookingBatchResultDto> createBookings(long userId, List<BookingDto> bookingDtos);
 
     BookingInfoDto approveBooking(long ownerId, long bookingId, Boolean approved);
 }
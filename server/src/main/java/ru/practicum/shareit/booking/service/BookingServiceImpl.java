@@ -1,21 +1,53 @@
 package ru.practicum.shareit.booking.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
-import org.springframework.data.domain.Sort.Direction;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingExportFormat;
+import ru.practicum.shareit.booking.dto.BookingExportWriter;
 import ru.practicum.shareit.booking.dto.BookingInfoDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.dto.ItemBookingStatsDto;
+import ru.practicum.shareit.booking.dto.OwnerBookingStatsDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingPhaseScheduler;
+import ru.practicum.shareit.booking.storage.BookingQuery;
 import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.booking.storage.ItemAvailabilityIndex;
+import ru.practicum.shareit.config.ParallelReads;
+import ru.practicum.shareit.config.ReadWriteRoutingDataSource;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.model.Item;
@@ -27,13 +59,23 @@ import ru.practicum.shareit.user.storage.UserRepository;
 @Service
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
+    static final int MAX_BATCH_SIZE = 100;
+    static final Duration DEFAULT_STATS_WINDOW = Duration.ofDays(30);
+
     private final BookingRepository bookingRepository;
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final ItemAvailabilityIndex availabilityIndex;
+    private final BookingPhaseScheduler phaseScheduler;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final OwnerBookingStatsCache ownerStatsCache;
+    private final ParallelReads parallelReads;
 
     @Override
     public BookingInfoDto getBookingById(long bookingId, long userId) {
-        validUser(userId);
+        validUserExists(userId);
         Booking booking = validBooking(bookingId);
 
         if (booking.getBooker().getId() != userId &&
@@ -45,79 +87,88 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingInfoDto> getBookingByUserId(long bookerId, String stateParameter, Integer from, Integer size) {
-        validUser(bookerId);
-        validPagination(from, size);
-        List<Booking> bookings;
-        BookingState state = BookingState.checkState(stateParameter);
-        LocalDateTime now = LocalDateTime.now();
-        Sort sort = Sort.by(Direction.DESC, "start");
-        PageRequest pageRequest = PageRequest.of(from / size, size, sort);
-
-        switch (state) {
-            case ALL:
-                bookings = bookingRepository.findByBooker_Id(bookerId, pageRequest).getContent();
-                break;
-            case FUTURE:
-                bookings = bookingRepository.findByBooker_IdAndStartAfter(bookerId, now, pageRequest).getContent();
-                break;
-            case PAST:
-                bookings = bookingRepository.findByBooker_IdAndEndBefore(bookerId, now, pageRequest).getContent();
-                break;
-            case CURRENT:
-                bookings = bookingRepository.findByBooker_IdAndStartLessThanEqualAndEndAfter(bookerId, now, now, pageRequest).getContent();
-                break;
-            case WAITING:
-                bookings = bookingRepository.findByBooker_IdAndStatusEquals(bookerId, BookingStatus.WAITING, pageRequest).getContent();
-                break;
-            case REJECTED:
-                bookings = bookingRepository.findByBooker_IdAndStatusEquals(bookerId, BookingStatus.REJECTED, pageRequest).getContent();
-                break;
-            default:
-                throw new IllegalArgumentException("Неизвестный статус: " + stateParameter);
-        }
+    public List<BookingInfoDto> getBookingsByIds(List<Long> bookingIds, long userId) {
+        validUserExists(userId);
+        validBatchSize(bookingIds.size());
 
-        return bookings.stream()
+        Map<Long, Booking> bookings = bookingRepository.findByIdIn(bookingIds).stream()
+            .filter(booking -> booking.getBooker().getId() == userId ||
+                booking.getItem().getOwner().getId() == userId)
+            .collect(Collectors.toMap(Booking::getId, Function.identity()));
+
+        return bookingIds.stream()
+            .distinct()
+            .map(bookings::get)
+            .filter(Objects::nonNull)
             .map(BookingMapper::toBookingInfoDto)
             .collect(Collectors.toList());
     }
 
+    @Override
+    public List<BookingInfoDto> getBookingByUserId(long bookerId, String stateParameter, Integer from, Integer size) {
+        validUserExists(bookerId);
+        validPagination(from, size);
+
+        return findBookings(BookingQuery.byBooker(bookerId), stateParameter, from, size);
+    }
+
     @Override
     public List<BookingInfoDto> getBookingByOwnerId(long ownerId, String stateParameter, Integer from, Integer size) {
-        validUser(ownerId);
+        validUserExists(ownerId);
         validPagination(from, size);
-        List<Booking> bookings;
-        BookingState state = BookingState.checkState(stateParameter);
-        LocalDateTime now = LocalDateTime.now();
-        Sort sort = Sort.by(Direction.DESC, "start");
-        PageRequest pageRequest = PageRequest.of(from / size, size, sort);
-
-        switch (state) {
-            case ALL:
-                bookings = bookingRepository.findByItem_Owner_Id(ownerId, pageRequest).getContent();
-                break;
-            case FUTURE:
-                bookings = bookingRepository.findByItem_Owner_IdAndStartAfter(ownerId, now, pageRequest).getContent();
-                break;
-            case PAST:
-                bookings = bookingRepository.findByItem_Owner_IdAndEndBefore(ownerId, now, pageRequest).getContent();
-                break;
-            case CURRENT:
-                bookings = bookingRepository.findByItem_Owner_IdAndStartLessThanEqualAndEndAfter(ownerId, now, now, pageRequest).getContent();
-                break;
-            case WAITING:
-                bookings = bookingRepository.findByItem_Owner_IdAndStatusEquals(ownerId, BookingStatus.WAITING, pageRequest).getContent();
-                break;
-            case REJECTED:
-                bookings = bookingRepository.findByItem_Owner_IdAndStatusEquals(ownerId, BookingStatus.REJECTED, pageRequest).getContent();
-                break;
-            default:
-                throw new IllegalArgumentException("Неизвестный статус: " + stateParameter);
-        }
 
-        return bookings.stream()
-            .map(BookingMapper::toBookingInfoDto)
-            .collect(Collectors.toList());
+        return parallelReads.read("owner-bookings",
+            () -> findBookings(BookingQuery.byOwner(ownerId), stateParameter, from, size));
+    }
+
+    @Override
+    public BookingPageDto getBookingPageByUserId(long bookerId, String stateParameter, String cursor, Integer size) {
+        validUserExists(bookerId);
+
+        return findBookingPage(BookingQuery.byBooker(bookerId), stateParameter, cursor, size);
+    }
+
+    @Override
+    public BookingPageDto getBookingPageByOwnerId(long ownerId, String stateParameter, String cursor, Integer size) {
+        validUserExists(ownerId);
+
+        return parallelReads.read("owner-bookings-page",
+            () -> findBookingPage(BookingQuery.byOwner(ownerId), stateParameter, cursor, size));
+    }
+
+    /**
+     * Сводка для панели владельца вместо шести запросов /bookings/owner по состояниям: считается одним
+     * сгруппированным запросом по вещам владельца, итог по владельцу складывается из строк вещей.
+     * Окно загрузки по умолчанию - последние {@code DEFAULT_STATS_WINDOW} до текущего момента.
+     */
+    @Override
+    public OwnerBookingStatsDto getOwnerStats(long ownerId, LocalDateTime start, LocalDateTime end) {
+        validUserExists(ownerId);
+
+        return ownerStatsCache.get(ownerId, start, end,
+            () -> parallelReads.read("owner-stats", () -> findOwnerStats(ownerId, start, end)));
+    }
+
+    /**
+     * Проверяет пользователя сразу, а историю аренд, включая заархивированные секции, читает уже при записи
+     * ответа - в read-only транзакции, потоком по {@code EXPORT_FETCH_SIZE} строк. Прочитанные аренды
+     * отсоединяются от контекста персистентности пачками, поэтому память не растёт с длиной истории.
+     */
+    @Override
+    public BookingExport exportBookingsByUserId(long bookerId, BookingExportFormat format) {
+        validUserExists(bookerId);
+
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readOnlyTransaction.setName(ReadWriteRoutingDataSource.REPLICA);
+
+        return out -> {
+            try {
+                readOnlyTransaction.executeWithoutResult(status -> writeBookings(bookerId, format, out));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
     }
 
     @Override
@@ -125,57 +176,224 @@ public class BookingServiceImpl implements BookingService {
         log.info("Создать аренду от пользователя с id= {}", userId);
         User booker = validUser(userId);
         Item item = validItem(bookingDto.getItemId());
-        User owner = item.getOwner();
 
-        if (booker.getId() == owner.getId()) {
-            throw new NotFoundException("Владелец не может быть арендатором");
-        }
-        if (!item.getAvailable()) {
-            throw new ValidationException("Товар с id: " + item.getId() + " недоступен для аренды");
-        }
-
-        validDate(bookingDto);
-
-        Booking booking = BookingMapper.toBooking(bookingDto);
-        booking.setStatus(BookingStatus.WAITING);
-        booking.setItem(item);
-        booking.setBooker(booker);
+        validNewBooking(booker, item, bookingDto);
+        reserveAvailability(item.getId(), bookingDto.getStart(), bookingDto.getEnd());
 
-        Booking savedBooking = bookingRepository.save(booking);
+        Booking savedBooking = saveReserved(newBooking(booker, item, bookingDto));
+        availabilityIndex.add(savedBooking);
+        phaseScheduler.register(savedBooking);
 
         log.info("Аренда пользователя с id = {} успешно создана", userId);
 
         return BookingMapper.toBookingInfoDto(savedBooking);
     }
 
+    /**
+     * Создаёт аренды пакетом. Пользователь и вещи загружаются одним запросом на весь пакет, занятость вещей -
+     * одним запросом по всем вещам пакета за общий интервал дат. Принятая строка занимает окно в индексе
+     * занятости, как и одиночная аренда, и снимает резерв, если не сохранилась. Строки проверяются независимо:
+     * отклонённая строка (нет вещи, вещь недоступна, даты заняты в базе или предыдущей строкой пакета)
+     * не мешает создать остальные, принятые строки сохраняются одним {@code saveAll}. Если база отклонила
+     * пакет из-за параллельно созданной аренды, строки сохраняются по одной, каждая в своей транзакции,
+     * и отклоняются только пересекающиеся.
+     */
+    @Override
+    public List<BookingBatchResultDto> createBookings(long userId, List<BookingDto> bookingDtos) {
+        log.info("Создать пакет из {} аренд от пользователя с id= {}", bookingDtos.size(), userId);
+        validBatchSize(bookingDtos.size());
+        User booker = validUser(userId);
+
+        Set<Long> itemIds = bookingDtos.stream()
+            .map(BookingDto::getItemId)
+            .collect(Collectors.toSet());
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+            .collect(Collectors.toMap(Item::getId, Function.identity()));
+        Map<Long, List<Booking>> activeBookings = findActiveBookings(items.keySet(), bookingDtos);
+
+        BookingBatchResultDto[] results = new BookingBatchResultDto[bookingDtos.size()];
+        List<Booking> accepted = new ArrayList<>();
+        List<Integer> acceptedIndexes = new ArrayList<>();
+
+        for (int i = 0; i < bookingDtos.size(); i++) {
+            BookingDto bookingDto = bookingDtos.get(i);
+            try {
+                Item item = items.get(bookingDto.getItemId());
+                if (item == null) {
+                    throw new NotFoundException("Не найден товар с id: " + bookingDto.getItemId());
+                }
+                validNewBooking(booker, item, bookingDto);
+
+                List<Booking> itemBookings = activeBookings.computeIfAbsent(item.getId(), id -> new ArrayList<>());
+                // База не видит окна, занятые одиночными арендами, которые ещё сохраняются, - их видит индекс
+                if (overlaps(itemBookings, bookingDto.getStart(), bookingDto.getEnd())
+                    || !availabilityIndex.reserveChecked(item.getId(), bookingDto.getStart(), bookingDto.getEnd())) {
+                    throw new ValidationException("Товар с id: " + item.getId() + " уже забронирован на эти даты");
+                }
+
+                Booking booking = newBooking(booker, item, bookingDto);
+                itemBookings.add(booking);
+                accepted.add(booking);
+                acceptedIndexes.add(i);
+            } catch (NotFoundException | ValidationException e) {
+                results[i] = BookingBatchResultDto.failed(i, e.getMessage());
+            }
+        }
+
+        List<Booking> savedBookings;
+        try {
+            savedBookings = saveBookings(accepted);
+        } catch (RuntimeException e) {
+            accepted.forEach(this::releaseReservation);
+            throw e;
+        }
+        int created = 0;
+        for (int j = 0; j < accepted.size(); j++) {
+            int index = acceptedIndexes.get(j);
+            Booking savedBooking;
+            try {
+                savedBooking = savedBookings != null ? savedBookings.get(j) : retryBooking(accepted.get(j));
+            } catch (ValidationException e) {
+                results[index] = BookingBatchResultDto.failed(index, e.getMessage());
+                continue;
+            }
+            availabilityIndex.add(savedBooking);
+            phaseScheduler.register(savedBooking);
+
+            results[index] = BookingBatchResultDto.created(index, BookingMapper.toBookingInfoDto(savedBooking));
+            created++;
+        }
+
+        log.info("Из пакета пользователя с id = {} создано аренд: {} из {}", userId, created, bookingDtos.size());
+
+        return Arrays.asList(results);
+    }
+
     @Override
     public BookingInfoDto approveBooking(long ownerId, long bookingId, Boolean approved) {
         Booking booking = validBooking(bookingId);
-        User owner = validUser(ownerId);
+        validUserExists(ownerId);
 
-        if (booking.getBooker().getId() == owner.getId()) {
+        if (booking.getBooker().getId() == ownerId) {
             throw new NotFoundException("Только владелец может менять статус аренды с id: " + bookingId);
         }
 
+        boolean reserved = false;
         if (approved) {
-            if (!booking.getStatus().equals(BookingStatus.APPROVED)) {
-                booking.setStatus(BookingStatus.APPROVED);
-            } else {
+            if (booking.getStatus().equals(BookingStatus.APPROVED)) {
                 throw new ValidationException("Аренда уже подтверждена");
             }
+            if (booking.getStatus().equals(BookingStatus.REJECTED)) {
+                reserveAvailability(booking.getItem().getId(), booking.getStart(), booking.getEnd());
+                reserved = true;
+            }
+            booking.setStatus(BookingStatus.APPROVED);
         } else {
             booking.setStatus(BookingStatus.REJECTED);
         }
-        Booking savedBooking = bookingRepository.save(booking);
+        Booking savedBooking = reserved ? saveReserved(booking) : saveBooking(booking);
+
+        if (savedBooking.getStatus().equals(BookingStatus.APPROVED)) {
+            availabilityIndex.add(savedBooking);
+        } else {
+            availabilityIndex.remove(savedBooking);
+        }
 
         return BookingMapper.toBookingInfoDto(savedBooking);
     }
 
+    private List<BookingInfoDto> findBookings(BookingQuery byRole, String stateParameter, Integer from, Integer size) {
+        BookingState state = BookingState.checkState(stateParameter);
+
+        List<Booking> bookings = bookingRepository.findSlice(byRole
+            .inState(state, LocalDateTime.now())
+            .page(from / size * size, size));
+
+        return bookings.stream()
+            .map(BookingMapper::toBookingInfoDto)
+            .collect(Collectors.toList());
+    }
+
+    private BookingPageDto findBookingPage(BookingQuery byRole, String stateParameter, String cursorToken,
+        Integer size) {
+        if (size <= 0) {
+            throw new ValidationException("Размер страницы должен быть положительным");
+        }
+
+        BookingState state = BookingState.checkState(stateParameter);
+        BookingCursor cursor = BookingCursor.decode(cursorToken);
+
+        List<Booking> bookings = bookingRepository.findSlice(byRole
+            .inState(state, LocalDateTime.now())
+            .after(cursor)
+            .page(0, size + 1));
+        String nextCursor = null;
+
+        if (bookings.size() > size) {
+            bookings = bookings.subList(0, size);
+            nextCursor = BookingCursor.of(bookings.get(size - 1)).encode();
+        }
+
+        List<BookingInfoDto> bookingInfoDtoList = bookings.stream()
+            .map(BookingMapper::toBookingInfoDto)
+            .collect(Collectors.toList());
+
+        return new BookingPageDto(bookingInfoDtoList, nextCursor);
+    }
+
+    private OwnerBookingStatsDto findOwnerStats(long ownerId, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime windowEnd = end != null ? end : now;
+        LocalDateTime windowStart = start != null ? start : windowEnd.minus(DEFAULT_STATS_WINDOW);
+
+        if (!windowStart.isBefore(windowEnd)) {
+            throw new ValidationException("Начало периода должно быть раньше его окончания");
+        }
+
+        Duration window = Duration.between(windowStart, windowEnd);
+        List<ItemBookingStatsDto> items = bookingRepository.findOwnerStats(ownerId, now, windowStart, windowEnd)
+            .stream()
+            .map(stats -> BookingMapper.toItemBookingStatsDto(stats, window))
+            .collect(Collectors.toList());
+
+        log.info("Сводка аренд владельца с id = {} посчитана по {} вещам", ownerId, items.size());
+
+        return BookingMapper.toOwnerBookingStatsDto(windowStart, windowEnd, items);
+    }
+
+    private void writeBookings(long bookerId, BookingExportFormat format, OutputStream out) {
+        BookingExportWriter writer = new BookingExportWriter(format,
+            new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)), objectMapper);
+        int count = 0;
+
+        try (Stream<Booking> bookings = bookingRepository.streamByBooker_Id(bookerId)) {
+            writer.writeHeader();
+            Iterator<Booking> iterator = bookings.iterator();
+            while (iterator.hasNext()) {
+                writer.write(BookingMapper.toBookingInfoDto(iterator.next()));
+                if (++count % BookingRepository.EXPORT_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        log.info("Выгружено {} аренд пользователя с id = {} в формате {}", count, bookerId, format);
+    }
+
     private User validUser(long userId) {
         return userRepository.findById(userId).orElseThrow(
             () -> new NotFoundException("Не найден пользователь с id: " + userId));
     }
 
+    private void validUserExists(long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException("Не найден пользователь с id: " + userId);
+        }
+    }
+
     private Booking validBooking(long bookingId) {
         return bookingRepository.findById(bookingId).orElseThrow(
             () -> new NotFoundException("Не найдена аренда с id: " + bookingId));
@@ -186,6 +404,48 @@ public class BookingServiceImpl implements BookingService {
             () -> new NotFoundException("Не найден товар с id: " + itemId));
     }
 
+    private void validNewBooking(User booker, Item item, BookingDto bookingDto) {
+        if (booker.getId() == item.getOwner().getId()) {
+            throw new NotFoundException("Владелец не может быть арендатором");
+        }
+        if (!item.getAvailable()) {
+            throw new ValidationException("Товар с id: " + item.getId() + " недоступен для аренды");
+        }
+
+        validDate(bookingDto);
+    }
+
+    private Booking newBooking(User booker, Item item, BookingDto bookingDto) {
+        Booking booking = BookingMapper.toBooking(bookingDto);
+        booking.setStatus(BookingStatus.WAITING);
+        booking.setItem(item);
+        booking.setBooker(booker);
+
+        return booking;
+    }
+
+    private Map<Long, List<Booking>> findActiveBookings(Collection<Long> itemIds, List<BookingDto> bookingDtos) {
+        List<BookingDto> dated = bookingDtos.stream()
+            .filter(bookingDto -> bookingDto.getStart() != null && bookingDto.getEnd() != null)
+            .collect(Collectors.toList());
+        if (itemIds.isEmpty() || dated.isEmpty()) {
+            return new HashMap<>();
+        }
+
+        LocalDateTime from = dated.stream().map(BookingDto::getStart).min(Comparator.naturalOrder()).get();
+        LocalDateTime to = dated.stream().map(BookingDto::getEnd).max(Comparator.naturalOrder()).get();
+
+        return bookingRepository.findByItem_IdInAndStatusInAndStartBeforeAndEndAfter(itemIds,
+                ItemAvailabilityIndex.ACTIVE_STATUSES, to, from).stream()
+            .collect(Collectors.groupingBy(booking -> booking.getItem().getId(),
+                Collectors.toCollection(ArrayList::new)));
+    }
+
+    private static boolean overlaps(List<Booking> bookings, LocalDateTime start, LocalDateTime end) {
+        return bookings.stream()
+            .anyMatch(booking -> booking.getStart().isBefore(end) && booking.getEnd().isAfter(start));
+    }
+
     private void validDate(BookingDto bookingDto) {
         LocalDateTime start = bookingDto.getStart();
         LocalDateTime end = bookingDto.getEnd();
@@ -199,6 +459,66 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
+    private void reserveAvailability(long itemId, LocalDateTime start, LocalDateTime end) {
+        if (!availabilityIndex.reserve(itemId, start, end)) {
+            throw new ValidationException("Товар с id: " + itemId + " уже забронирован на эти даты");
+        }
+    }
+
+    // Окно занято в индексе до сохранения: при ошибке резерв снимается, сохранённая аренда заменяет его в add
+    private Booking saveReserved(Booking booking) {
+        try {
+            return saveBooking(booking);
+        } catch (RuntimeException e) {
+            releaseReservation(booking);
+            throw e;
+        }
+    }
+
+    private void releaseReservation(Booking booking) {
+        availabilityIndex.release(booking.getItem().getId(), booking.getStart());
+    }
+
+    private Booking saveBooking(Booking booking) {
+        try {
+            return bookingRepository.save(booking);
+        } catch (DataIntegrityViolationException e) {
+            throw new ValidationException("Товар с id: " + booking.getItem().getId() + " уже забронирован на эти даты");
+        }
+    }
+
+    /**
+     * Сохраняет принятые строки пакета одним {@code saveAll}. Если база отклонила пакет (строка пересеклась
+     * с арендой, созданной параллельно), возвращает {@code null}: строки сохраняются заново по одной.
+     */
+    private List<Booking> saveBookings(List<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return bookings;
+        }
+
+        try {
+            return bookingRepository.saveAll(bookings);
+        } catch (DataIntegrityViolationException e) {
+            log.info("Пакет из {} аренд пересёкся с другой арендой, сохраняем строки по одной", bookings.size());
+            return null;
+        }
+    }
+
+    private Booking retryBooking(Booking booking) {
+        // Идентификатор выдан в откаченной транзакции пакета, строку нужно вставить заново
+        booking.setId(0);
+        return saveReserved(booking);
+    }
+
+    private void validBatchSize(int size) {
+        if (size == 0) {
+            throw new ValidationException("Пакет не должен быть пустым");
+        }
+        if (size > MAX_BATCH_SIZE) {
+            throw new ValidationException("Пакет не должен содержать больше " + MAX_BATCH_SIZE + " аренд");
+        }
+    }
+
     private void validPagination(Integer from, Integer size) {
         if (from < 0 || size < 0) {
             throw new ValidationException("Параметры пагинации не должны быть отрицательными");
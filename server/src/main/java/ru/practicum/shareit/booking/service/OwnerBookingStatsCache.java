@@ -0,0 +1,50 @@
+package ru.practicum.shareit.booking.service;
+
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.OwnerBookingStatsDto;
+
+/**
+ * Короткоживущий кэш сводок владельца: регион {@code owner-booking-stats} из {@code application.conf}.
+ *
+ * <p>Новые и подтверждённые аренды кэш не сбрасывают - сводка отстаёт от базы не дольше срока жизни записи.
+ * Ключ - запрошенные границы окна: без них окно отсчитывается от момента первого расчёта.
+ */
+@Component
+public class OwnerBookingStatsCache {
+    public static final String REGION = "owner-booking-stats";
+
+    private final Cache<Key, OwnerBookingStatsDto> cache;
+
+    public OwnerBookingStatsCache(CacheManager entityCacheManager,
+        @Value("${shareit.booking.stats.cache.enabled:true}") boolean enabled) {
+        this.cache = enabled ? entityCacheManager.getCache(REGION) : null;
+    }
+
+    public OwnerBookingStatsDto get(long ownerId, LocalDateTime start, LocalDateTime end,
+        Supplier<OwnerBookingStatsDto> loader) {
+        if (cache == null) {
+            return loader.get();
+        }
+
+        Key key = new Key(ownerId, start, end);
+        OwnerBookingStatsDto stats = cache.get(key);
+        if (stats == null) {
+            stats = loader.get();
+            cache.put(key, stats);
+        }
+
+        return stats;
+    }
+
+    @lombok.Value
+    private static class Key {
+        long ownerId;
+        LocalDateTime start;
+        LocalDateTime end;
+    }
+}
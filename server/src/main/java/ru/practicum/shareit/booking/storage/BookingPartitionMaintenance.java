@@ -0,0 +1,47 @@
+package ru.practicum.shareit.booking.storage;
+
+import java.time.LocalDate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Обслуживание помесячных секций {@code bookings} (Postgres, миграция V5): заранее создаёт секции
+ * на {@code months-ahead} месяцев вперёд и переносит в {@code bookings_archive} секции старше
+ * {@code retention-months}. Аренды из архива попадают только в выгрузку истории
+ * ({@link BookingRepository#streamByBooker_Id}): в списках, в {@code GET /bookings/{id}} и при проверке права
+ * на отзыв их нет - это ограничение API, окно в {@code retention-months} месяцев задано намеренно.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.booking.partitions.enabled", havingValue = "true")
+public class BookingPartitionMaintenance {
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    public BookingPartitionMaintenance(JdbcTemplate jdbcTemplate,
+        @Value("${shareit.booking.partitions.months-ahead:12}") int monthsAhead,
+        @Value("${shareit.booking.partitions.retention-months:36}") int retentionMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${shareit.booking.partitions.cron:0 0 3 * * *}")
+    public void maintain() {
+        Integer created = jdbcTemplate.queryForObject("select bookings_create_partitions(?)", Integer.class,
+            monthsAhead);
+        LocalDate cutoff = LocalDate.now().withDayOfMonth(1).minusMonths(retentionMonths);
+        Integer archived = jdbcTemplate.queryForObject("select bookings_archive_partitions(?)", Integer.class,
+            cutoff);
+
+        log.info("Секции аренд: создано {}, перенесено в архив {} (старше {})", created, archived, cutoff);
+    }
+}
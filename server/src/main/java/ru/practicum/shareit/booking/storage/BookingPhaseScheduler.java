@@ -0,0 +1,83 @@
+package ru.practicum.shareit.booking.storage;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.ScheduledFuture;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
+
+/**
+ * Двигает сохранённую фазу аренд FUTURE -> CURRENT -> PAST (см. {@link BookingPhase}).
+ *
+ * <p>Ждёт только одну границу - ближайшее начало среди FUTURE или окончание среди CURRENT - и в этот момент
+ * переводит все аренды, чья граница наступила, двумя массовыми обновлениями по индексам (phase, start_date_time)
+ * и (phase, end_date_time) из миграции V8. Аренды этого узла сами сдвигают ожидание через {@link #register},
+ * аренды других узлов сервера подхватывает проверка раз в {@code shareit.booking.phases.sweep-interval}:
+ * на этот срок их переход может опоздать.
+ */
+@Slf4j
+@Component
+public class BookingPhaseScheduler {
+    private final BookingRepository bookingRepository;
+    private final TaskScheduler taskScheduler;
+    private LocalDateTime nextBoundary;
+    private ScheduledFuture<?> nextRun;
+
+    public BookingPhaseScheduler(BookingRepository bookingRepository, TaskScheduler taskScheduler) {
+        this.bookingRepository = bookingRepository;
+        this.taskScheduler = taskScheduler;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.phases.sweep-interval:PT1M}")
+    public void advance() {
+        synchronized (this) {
+            // Границы, зарегистрированные после этой точки, уже сохранены и попадут в запрос ниже или в register
+            nextBoundary = null;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int finished = bookingRepository.finishBookings(now);
+        int started = bookingRepository.startBookings(now);
+        if (finished + started > 0) {
+            log.info("Фазы аренд на {}: началось {}, закончилось {}", now, started, finished);
+        }
+
+        schedule(earliest(bookingRepository.findNextStart(), bookingRepository.findNextEnd()));
+    }
+
+    public void register(Booking booking) {
+        switch (booking.getPhase()) {
+            case FUTURE:
+                schedule(booking.getStart());
+                break;
+            case CURRENT:
+                schedule(booking.getEnd());
+                break;
+            default:
+                break;
+        }
+    }
+
+    private synchronized void schedule(LocalDateTime boundary) {
+        if (boundary == null || nextBoundary != null && !boundary.isBefore(nextBoundary)) {
+            return;
+        }
+        if (nextRun != null) {
+            nextRun.cancel(false);
+        }
+
+        nextBoundary = boundary;
+        nextRun = taskScheduler.schedule(this::advance, boundary.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static LocalDateTime earliest(LocalDateTime first, LocalDateTime second) {
+        if (first == null || second != null && second.isBefore(first)) {
+            return second;
+        }
+        return first;
+    }
+}
@@ -1,55 +1,121 @@
 package ru.practicum.shareit.booking.storage;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
-import ru.practicum.shareit.item.model.Item;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
+    int EXPORT_FETCH_SIZE = 500;
 
+    // Условие на start избыточно (start < end), но позволяет отсечь будущие секции bookings
     @EntityGraph(value = "Booking.UserAndItem")
-    Page<Booking> findByBooker_Id(long bookerId, PageRequest pageRequest);
+    @Query("select b from Booking b " +
+        "where b.booker.id = ?1 and b.item.id = ?2 and b.start < ?3 and b.end < ?3")
+    List<Booking> findByBooker_IdAndItem_Id_AndEndBefore(long bookerId, long itemId, LocalDateTime localDateTime);
 
-    @EntityGraph(value = "Booking.UserAndItem")
-    Page<Booking> findByBooker_IdAndStartAfter(long bookerId, LocalDateTime start, PageRequest pageRequest);
+    @Query("select b.item.id as itemId, b.id as id, b.booker.id as bookerId from Booking b " +
+        "where b.item.id in ?1 and b.status <> ?3 " +
+        "and b.start = (select max(l.start) from Booking l " +
+        " where l.item = b.item and l.status <> ?3 and l.start <= ?2)")
+    List<ItemBookingView> findLastBookings(Collection<Long> itemIds, LocalDateTime now, BookingStatus excludedStatus);
 
-    @EntityGraph(value = "Booking.UserAndItem")
-    Page<Booking> findByBooker_IdAndEndBefore(long bookerId, LocalDateTime end, PageRequest pageRequest);
+    @Query("select b.item.id as itemId, b.id as id, b.booker.id as bookerId from Booking b " +
+        "where b.item.id in ?1 and b.status <> ?3 " +
+        "and b.start = (select min(n.start) from Booking n " +
+        " where n.item = b.item and n.status <> ?3 and n.start > ?2)")
+    List<ItemBookingView> findNextBookings(Collection<Long> itemIds, LocalDateTime now, BookingStatus excludedStatus);
 
-    @EntityGraph(value = "Booking.UserAndItem")
-    Page<Booking> findByBooker_IdAndStartLessThanEqualAndEndAfter(long bookerId, LocalDateTime start, LocalDateTime end,
-        PageRequest pageRequest);
+    /**
+     * Сводка по всем вещам владельца одним запросом: число аренд в каждом состоянии {@code BookingState}
+     * (по сохранённой фазе и статусу, как в {@link BookingQuery#inState}), секунды подтверждённых аренд внутри окна ?3..?4
+     * и ближайшая будущая аренда в смысле {@link #findNextBookings}. Вещи без аренд попадают в сводку с нулями.
+     */
+    @Query(value = "select i.item_id as itemId, i.name as itemName, " +
+        "count(b.booking_id) as allCount, " +
+        "coalesce(sum(case when b.phase = 'CURRENT' then 1 else 0 end), 0) as currentCount, " +
+        "coalesce(sum(case when b.phase = 'PAST' then 1 else 0 end), 0) as pastCount, " +
+        "coalesce(sum(case when b.phase = 'FUTURE' then 1 else 0 end), 0) as futureCount, " +
+        "coalesce(sum(case when b.status = 'WAITING' then 1 else 0 end), 0) as waitingCount, " +
+        "coalesce(sum(case when b.status = 'REJECTED' then 1 else 0 end), 0) as rejectedCount, " +
+        "coalesce(sum(case when b.status = 'APPROVED' and b.start_date_time < ?4 and b.end_date_time > ?3 " +
+        " then extract(epoch from least(b.end_date_time, ?4)) " +
+        "  - extract(epoch from greatest(b.start_date_time, ?3)) end), 0) as bookedSeconds, " +
+        "max(case when b.next_position = 1 then b.booking_id end) as nextBookingId, " +
+        "max(case when b.next_position = 1 then b.booker_id end) as nextBookerId, " +
+        "max(case when b.next_position = 1 then b.start_date_time end) as nextBookingStart " +
+        "from items i left join (" +
+        " select ob.*, case when ob.start_date_time > ?2 and ob.status <> 'REJECTED' then row_number() over (" +
+        "  partition by ob.item_id " +
+        "  order by case when ob.start_date_time > ?2 and ob.status <> 'REJECTED' then 0 else 1 end, " +
+        "  ob.start_date_time, ob.booking_id) end as next_position " +
+        " from items oi join bookings ob on ob.item_id = oi.item_id " +
+        " where oi.owner_id = ?1" +
+        ") b on b.item_id = i.item_id " +
+        "where i.owner_id = ?1 " +
+        "group by i.item_id, i.name " +
+        "order by i.item_id", nativeQuery = true)
+    List<ItemBookingStatsView> findOwnerStats(long ownerId, LocalDateTime now, LocalDateTime windowStart,
+        LocalDateTime windowEnd);
 
-    @EntityGraph(value = "Booking.UserAndItem")
-    Page<Booking> findByBooker_IdAndStatusEquals(long bookerId, BookingStatus status, PageRequest pageRequest);
+    // Переходы фаз для BookingPhaseScheduler: повторный вызов с тем же моментом ничего не меняет
+    @Transactional
+    @Modifying
+    @Query("update Booking b set b.phase = ru.practicum.shareit.booking.model.BookingPhase.PAST " +
+        "where b.phase in (ru.practicum.shareit.booking.model.BookingPhase.FUTURE, " +
+        " ru.practicum.shareit.booking.model.BookingPhase.CURRENT) and b.end <= ?1")
+    int finishBookings(LocalDateTime now);
 
-    @EntityGraph(value = "Booking.UserAndItem")
-    Page<Booking> findByItem_Owner_Id(long ownerId, PageRequest pageRequest);
+    @Transactional
+    @Modifying
+    @Query("update Booking b set b.phase = ru.practicum.shareit.booking.model.BookingPhase.CURRENT " +
+        "where b.phase = ru.practicum.shareit.booking.model.BookingPhase.FUTURE and b.start <= ?1")
+    int startBookings(LocalDateTime now);
 
-    @EntityGraph(value = "Booking.UserAndItem")
-    Page<Booking> findByItem_Owner_IdAndStartAfter(long ownerId, LocalDateTime start, PageRequest pageRequest);
+    @Query("select min(b.start) from Booking b " +
+        "where b.phase = ru.practicum.shareit.booking.model.BookingPhase.FUTURE")
+    LocalDateTime findNextStart();
 
-    @EntityGraph(value = "Booking.UserAndItem")
-    Page<Booking> findByItem_Owner_IdAndEndBefore(long ownerId, LocalDateTime end, PageRequest pageRequest);
+    @Query("select min(b.end) from Booking b " +
+        "where b.phase = ru.practicum.shareit.booking.model.BookingPhase.CURRENT")
+    LocalDateTime findNextEnd();
 
-    @EntityGraph(value = "Booking.UserAndItem")
-    Page<Booking> findByItem_Owner_IdAndStartLessThanEqualAndEndAfter(long ownerId, LocalDateTime start,
-        LocalDateTime end, PageRequest pageRequest);
+    /**
+     * Вся история аренд пользователя для выгрузки, вместе с секциями, перенесёнными в {@code bookings_archive}
+     * ({@link BookingPartitionMaintenance}). Запрос нативный, поэтому вещи подгружаются лениво - по разу
+     * на вещь между очистками контекста. Читается курсором по {@code EXPORT_FETCH_SIZE} строк, поэтому
+     * вызывать только внутри транзакции и закрывать поток после чтения.
+     */
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.fetchSize", value = "" + EXPORT_FETCH_SIZE),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheable", value = "false")
+    })
+    @Query(value = "select booking_id, start_date_time, end_date_time, item_id, booker_id, status, phase " +
+        "from bookings where booker_id = ?1 " +
+        "union all " +
+        "select booking_id, start_date_time, end_date_time, item_id, booker_id, status, phase " +
+        "from bookings_archive where booker_id = ?1 " +
+        "order by start_date_time, booking_id", nativeQuery = true)
+    Stream<Booking> streamByBooker_Id(long bookerId);
 
     @EntityGraph(value = "Booking.UserAndItem")
-    Page<Booking> findByItem_Owner_IdAndStatusEquals(long ownerId, BookingStatus status, PageRequest pageRequest);
+    List<Booking> findByIdIn(Collection<Long> ids);
 
-    @EntityGraph(value = "Booking.UserAndItem")
-    List<Booking> findByItem_IdAndStatusNot(long itemId, BookingStatus status);
+    List<Booking> findByStatusInAndEndAfter(List<BookingStatus> statuses, LocalDateTime end);
 
-    @EntityGraph(value = "Booking.UserAndItem")
-    List<Booking> findByBooker_IdAndItem_Id_AndEndBefore(long bookerId, long itemId, LocalDateTime localDateTime);
+    boolean existsByItem_IdAndStatusInAndStartBeforeAndEndAfter(long itemId, List<BookingStatus> statuses,
+        LocalDateTime end, LocalDateTime start);
 
-    @EntityGraph(value = "Booking.UserAndItem")
-    List<Booking> findByItemInAndStatusNot(List<Item> items, BookingStatus status);
+    List<Booking> findByItem_IdInAndStatusInAndStartBeforeAndEndAfter(Collection<Long> itemIds,
+        List<BookingStatus> statuses, LocalDateTime end, LocalDateTime start);
 }
@@ -0,0 +1,8 @@
+package ru.practicum.shareit.booking.storage;
+
+import java.util.List;
+import ru.practicum.shareit.booking.model.Booking;
+
+public interface BookingRepositoryCustom {
+    List<Booking> findSlice(BookingQuery bookingQuery);
+}
@@ -0,0 +1,49 @@
+package ru.practicum.shareit.booking.storage;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.booking.model.Booking;
+
+@RequiredArgsConstructor
+public class BookingRepositoryImpl implements BookingRepositoryCustom {
+    private static final String FETCH_GRAPH_HINT = "javax.persistence.fetchgraph";
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<Booking> findSlice(BookingQuery bookingQuery) {
+        Query idQuery = entityManager.createNativeQuery(bookingQuery.getSql());
+        List<Object> parameters = bookingQuery.getParameters();
+
+        for (int i = 0; i < parameters.size(); i++) {
+            idQuery.setParameter(i + 1, parameters.get(i));
+        }
+
+        List<Long> ids = ((List<?>) idQuery.getResultList()).stream()
+            .map(id -> ((Number) id).longValue())
+            .collect(toList());
+
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Long, Booking> bookingsById = entityManager
+            .createQuery("select b from Booking b where b.id in :ids", Booking.class)
+            .setParameter("ids", ids)
+            .setHint(FETCH_GRAPH_HINT, entityManager.getEntityGraph("Booking.UserAndItem"))
+            .getResultStream()
+            .collect(toMap(Booking::getId, Function.identity()));
+
+        return ids.stream()
+            .map(bookingsById::get)
+            .collect(toList());
+    }
+}
@@ -0,0 +1,209 @@
+package ru.practicum.shareit.booking.storage;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+/**
+ * Индекс занятости вещей: для каждой вещи хранит интервалы активных (WAITING и APPROVED) аренд,
+ * упорядоченные по началу.
+ *
+ * <p>Пересечения отклоняются при создании аренды, поэтому интервалы одной вещи не пересекаются
+ * и проверка свободного окна сводится к двум соседям в {@link TreeMap} - O(log n). Окно занимается
+ * {@link #reserve} - проверка и вставка под одной блокировкой вещи, - до сохранения аренды: две параллельные
+ * аренды одного окна не пройдут обе. Резерв без сохранённой аренды снимается {@link #release}.
+ *
+ * <p>Закончившиеся аренды больше ничему не мешают: они отбрасываются при каждой вставке в вещь
+ * и раз в {@code shareit.booking.availability.prune-interval} по всем вещам. Интервалы вещи не пересекаются,
+ * поэтому упорядочены и по концу, и закончившиеся всегда стоят в начале.
+ *
+ * <p>В режиме {@link Mode#SHARED} (несколько узлов сервера) локальный индекс не видит аренды других узлов,
+ * поэтому проверка выполняется запросом к базе, а гарантию даёт триггер {@code bookings_no_overlap}
+ * из миграции V5 для Postgres (до секционирования - exclusion constraint из V2).
+ */
+@Slf4j
+@Component
+public class ItemAvailabilityIndex {
+    public static final List<BookingStatus> ACTIVE_STATUSES = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+    // Идентификаторы аренд выдаёт последовательность с 1, ноль - окно занято, аренда ещё сохраняется
+    private static final long RESERVED = 0;
+
+    private final BookingRepository bookingRepository;
+    private final Mode mode;
+    private final Map<Long, NavigableMap<LocalDateTime, Slot>> slotsByItem = new ConcurrentHashMap<>();
+
+    public ItemAvailabilityIndex(BookingRepository bookingRepository,
+        @Value("${shareit.booking.availability.mode:LOCAL}") Mode mode) {
+        this.bookingRepository = bookingRepository;
+        this.mode = mode;
+    }
+
+    @PostConstruct
+    public void load() {
+        if (mode == Mode.SHARED) {
+            return;
+        }
+
+        List<Booking> bookings = bookingRepository.findByStatusInAndEndAfter(ACTIVE_STATUSES, LocalDateTime.now());
+        bookings.forEach(this::add);
+
+        log.info("Индекс занятости вещей загружен, активных аренд: {}", bookings.size());
+    }
+
+    public boolean isAvailable(long itemId, LocalDateTime start, LocalDateTime end) {
+        if (mode == Mode.SHARED) {
+            return !bookingRepository.existsByItem_IdAndStatusInAndStartBeforeAndEndAfter(
+                itemId, ACTIVE_STATUSES, end, start);
+        }
+
+        NavigableMap<LocalDateTime, Slot> slots = slotsByItem.get(itemId);
+        if (slots == null) {
+            return true;
+        }
+
+        synchronized (slots) {
+            return isFree(slots, start, end);
+        }
+    }
+
+    /**
+     * Занимает окно, если оно свободно, и возвращает {@code false}, если занято. После сохранения аренды
+     * резерв заменяется ею в {@link #add}, при ошибке сохранения снимается {@link #release}.
+     * В режиме {@link Mode#SHARED} окно проверяется в базе, а занимает его вставка строки под триггером.
+     */
+    public boolean reserve(long itemId, LocalDateTime start, LocalDateTime end) {
+        if (mode == Mode.SHARED) {
+            return isAvailable(itemId, start, end);
+        }
+
+        NavigableMap<LocalDateTime, Slot> slots = slotsByItem.computeIfAbsent(itemId, id -> new TreeMap<>());
+
+        synchronized (slots) {
+            pruneFinished(slots, LocalDateTime.now());
+            if (!isFree(slots, start, end)) {
+                return false;
+            }
+            slots.put(start, new Slot(RESERVED, end));
+            return true;
+        }
+    }
+
+    /**
+     * То же, что {@link #reserve}, для строки пакета, уже проверенной в базе одним запросом на весь пакет:
+     * в режиме {@link Mode#SHARED} повторный запрос не нужен, окно занимает вставка строки под триггером.
+     */
+    public boolean reserveChecked(long itemId, LocalDateTime start, LocalDateTime end) {
+        return mode == Mode.SHARED || reserve(itemId, start, end);
+    }
+
+    public void release(long itemId, LocalDateTime start) {
+        NavigableMap<LocalDateTime, Slot> slots = slotsByItem.get(itemId);
+        if (slots == null) {
+            return;
+        }
+
+        synchronized (slots) {
+            Slot slot = slots.get(start);
+            if (slot != null && slot.getBookingId() == RESERVED) {
+                slots.remove(start);
+            }
+        }
+    }
+
+    public void add(Booking booking) {
+        if (mode == Mode.SHARED) {
+            return;
+        }
+
+        NavigableMap<LocalDateTime, Slot> slots = slotsByItem.computeIfAbsent(booking.getItem().getId(),
+            itemId -> new TreeMap<>());
+
+        synchronized (slots) {
+            pruneFinished(slots, LocalDateTime.now());
+            slots.put(booking.getStart(), new Slot(booking.getId(), booking.getEnd()));
+        }
+    }
+
+    public void remove(Booking booking) {
+        NavigableMap<LocalDateTime, Slot> slots = slotsByItem.get(booking.getItem().getId());
+        if (slots == null) {
+            return;
+        }
+
+        synchronized (slots) {
+            Slot slot = slots.get(booking.getStart());
+            if (slot != null && slot.getBookingId() == booking.getId()) {
+                slots.remove(booking.getStart());
+            }
+        }
+    }
+
+    // Вещи, в которые давно не вставляли аренды, иначе держали бы закончившиеся аренды до перезапуска
+    @Scheduled(fixedDelayString = "${shareit.booking.availability.prune-interval:PT1H}")
+    public void prune() {
+        LocalDateTime now = LocalDateTime.now();
+        int pruned = 0;
+        for (NavigableMap<LocalDateTime, Slot> slots : slotsByItem.values()) {
+            synchronized (slots) {
+                pruned += pruneFinished(slots, now);
+            }
+        }
+
+        if (pruned > 0) {
+            log.info("Из индекса занятости удалено закончившихся аренд: {}", pruned);
+        }
+    }
+
+    int slotCount(long itemId) {
+        NavigableMap<LocalDateTime, Slot> slots = slotsByItem.get(itemId);
+        if (slots == null) {
+            return 0;
+        }
+
+        synchronized (slots) {
+            return slots.size();
+        }
+    }
+
+    private static boolean isFree(NavigableMap<LocalDateTime, Slot> slots, LocalDateTime start, LocalDateTime end) {
+        Map.Entry<LocalDateTime, Slot> before = slots.floorEntry(start);
+        if (before != null && before.getValue().getEnd().isAfter(start)) {
+            return false;
+        }
+
+        LocalDateTime nextStart = slots.higherKey(start);
+        return nextStart == null || !nextStart.isBefore(end);
+    }
+
+    private static int pruneFinished(NavigableMap<LocalDateTime, Slot> slots, LocalDateTime now) {
+        int pruned = 0;
+        while (!slots.isEmpty() && !slots.firstEntry().getValue().getEnd().isAfter(now)) {
+            slots.pollFirstEntry();
+            pruned++;
+        }
+        return pruned;
+    }
+
+    public enum Mode {
+        // Один узел сервера, индекс в памяти - источник истины
+        LOCAL,
+        // Несколько узлов сервера, источник истины - триггер bookings_no_overlap в Postgres
+        SHARED
+    }
+
+    @lombok.Value
+    private static class Slot {
+        long bookingId;
+        LocalDateTime end;
+    }
+}
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking.storage;
+
+public interface ItemBookingView {
+    Long getItemId();
+
+    Long getId();
+
+    Long getBookerId();
+}
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Кэш второго уровня Hibernate для {@code User}, {@code Item} и {@code ItemRequest}.
+ *
+ * <p>Регионы и их ограничения описаны в {@code application.conf}. Hibernate получает тот же
+ * {@link CacheManager}, что и метрики: после создания регионов каждый из них публикуется в actuator
+ * как {@code cache.gets}, {@code cache.puts}, {@code cache.evictions} и {@code cache.removals}
+ * с тегом {@code cache} = имя региона.
+ *
+ * <p>Тот же менеджер хранит регион {@code owner-booking-stats} вне Hibernate - см. {@code OwnerBookingStatsCache}.
+ */
+@Configuration
+public class EntityCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager() {
+        return Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheManagerCustomizer(CacheManager entityCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+    }
+
+    @Bean
+    public SmartInitializingSingleton entityCacheMetrics(CacheManager entityCacheManager, MeterRegistry meterRegistry) {
+        return () -> entityCacheManager.getCacheNames().forEach(cacheName ->
+            JCacheMetrics.monitor(meterRegistry, entityCacheManager.getCache(cacheName), "cacheManager", "hibernate"));
+    }
+}
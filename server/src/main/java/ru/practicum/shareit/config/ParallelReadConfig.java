@@ -0,0 +1,51 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.ThreadPoolExecutor;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+@EnableConfigurationProperties(ParallelReadProperties.class)
+public class ParallelReadConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor parallelReadExecutor(ParallelReadProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getThreads());
+        executor.setMaxPoolSize(properties.getThreads());
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        executor.setThreadNamePrefix("parallel-read-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+
+    @Bean
+    public ParallelReads parallelReads(ThreadPoolTaskExecutor parallelReadExecutor,
+        PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+        ParallelReadProperties properties) {
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readOnlyTransaction.setName(ReadWriteRoutingDataSource.REPLICA);
+        TransactionTemplate primaryTransaction = new TransactionTemplate(transactionManager);
+
+        return new ParallelReads(parallelReadExecutor, readOnlyTransaction, primaryTransaction, meterRegistry,
+            properties.getTimeout());
+    }
+
+    // Соединение возвращается в пул после каждой транзакции. Иначе сессия open-in-view держит его до конца
+    // запроса: поток запроса ждал бы свои ветки с занятым соединением, а с репликами запись после чтения
+    // ушла бы на реплику
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+            PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Пул для параллельных чтений в сервисах. Каждая ветка держит своё соединение,
+ * поэтому потоков должно быть заметно меньше, чем соединений в пуле базы.
+ */
+@Getter
+@Setter
+@ConfigurationProperties("shareit.parallel-reads")
+public class ParallelReadProperties {
+    private int threads = 4;
+    // Когда очередь заполнена, ветка выполняется в потоке запроса
+    private int queueCapacity = 100;
+    private Duration timeout = Duration.ofSeconds(10);
+}
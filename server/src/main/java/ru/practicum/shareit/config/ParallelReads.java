@@ -0,0 +1,90 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.support.TransactionOperations;
+
+/**
+ * Параллельные чтения в сервисах: независимые запросы к репозиториям запускаются {@link #fork веткой}
+ * на отдельном пуле и собираются {@link #join}. Каждая ветка - своя транзакция со своим соединением,
+ * время ветки пишется в таймер {@code shareit.parallel.reads} с тегом {@code branch}.
+ *
+ * <p>Ветки {@link #fork} и {@link #read} - read-only транзакции: с репликами они читают с реплики
+ * и могут отставать от записи на время лага. Методы, которые должны видеть только что записанное
+ * (пользователь сразу после регистрации, запрос сразу после создания), читают через
+ * {@link #forkOnPrimary} и {@link #readOnPrimary} - обычную транзакцию на основной базе.
+ *
+ * <p>Сущности из ветки отсоединены от сессии запроса: всё, что нужно для ответа, должно загружаться
+ * в самой ветке (join fetch, entity graph или проекция).
+ */
+public class ParallelReads {
+    static final String TIMER = "shareit.parallel.reads";
+
+    private final Executor executor;
+    private final TransactionOperations readOnlyTransaction;
+    private final TransactionOperations primaryTransaction;
+    private final MeterRegistry meterRegistry;
+    private final long timeoutMillis;
+
+    public ParallelReads(Executor executor, TransactionOperations readOnlyTransaction,
+        TransactionOperations primaryTransaction, MeterRegistry meterRegistry, Duration timeout) {
+        this.executor = executor;
+        this.readOnlyTransaction = readOnlyTransaction;
+        this.primaryTransaction = primaryTransaction;
+        this.meterRegistry = meterRegistry;
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    public <T> CompletableFuture<T> fork(String branch, Supplier<T> read) {
+        return CompletableFuture.supplyAsync(() -> read(branch, read), executor);
+    }
+
+    public <T> CompletableFuture<T> forkOnPrimary(String branch, Supplier<T> read) {
+        return CompletableFuture.supplyAsync(() -> readOnPrimary(branch, read), executor);
+    }
+
+    // Шаг, от которого зависят остальные ветки: в потоке запроса, но тоже отдельной транзакцией
+    public <T> T read(String branch, Supplier<T> read) {
+        return execute(branch, readOnlyTransaction, read);
+    }
+
+    public <T> T readOnPrimary(String branch, Supplier<T> read) {
+        return execute(branch, primaryTransaction, read);
+    }
+
+    public <T> T join(CompletableFuture<T> branch) {
+        try {
+            return branch.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            branch.cancel(false);
+            throw new QueryTimeoutException("Параллельное чтение не завершилось за " + timeoutMillis + " мс", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание параллельного чтения прервано", e);
+        }
+    }
+
+    private <T> T execute(String branch, TransactionOperations transaction, Supplier<T> read) {
+        Timer timer = Timer.builder(TIMER)
+            .tag("branch", branch)
+            .register(meterRegistry);
+
+        return timer.record(() -> transaction.execute(status -> read.get()));
+    }
+}
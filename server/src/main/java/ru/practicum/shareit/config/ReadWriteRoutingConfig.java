@@ -0,0 +1,93 @@
+package ru.practicum.shareit.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+/**
+ * Разделение чтения и записи: списки, читающие через {@link ParallelReads#read} и {@link ParallelReads#fork},
+ * читают с реплик из {@code shareit.datasource.replica.urls}, всё остальное идёт в {@code spring.datasource}.
+ * Без списка реплик конфигурация не подключается и остаётся обычный DataSource Spring Boot.
+ *
+ * <p>Какие транзакции читают с реплики и почему они не наполняют кэш второго уровня -
+ * см. {@link ReplicaRoutingJpaDialect}.
+ */
+@Configuration
+@ConditionalOnProperty("shareit.datasource.replica.urls")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReadWriteRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(HikariDataSource primaryDataSource,
+        DataSourceProperties properties, ReplicaProperties replicaProperties) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<String> urls = replicaProperties.getUrls();
+
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(urls.get(i))
+                .build();
+            replica.setPoolName("replica-" + i);
+            replica.setReadOnly(true);
+            replica.setMaximumPoolSize(replicaProperties.getMaxPoolSize());
+            replicas.put(replica.getPoolName(), replica);
+        }
+
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicas);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+    }
+
+    // Менеджер транзакций берёт диалект у фабрики EntityManager при инициализации, поэтому заменяется после неё
+    @Bean
+    public static BeanPostProcessor replicaCacheModePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof JpaTransactionManager) {
+                    ((JpaTransactionManager) bean).setJpaDialect(new ReplicaRoutingJpaDialect());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public ReplicaLagMonitor replicaLagMonitor(ReadWriteRoutingDataSource readWriteRoutingDataSource,
+        ReplicaProperties replicaProperties, MeterRegistry meterRegistry) {
+        // Метрики hikaricp.* с тегом pool=replica-N, как у основного пула. Подключаются здесь, а не при
+        // создании пулов: MeterRegistry сам зависит от всех DataSource. Пулы реплик открываются только в start()
+        readWriteRoutingDataSource.getReplicas().values().forEach(replica -> ((HikariDataSource) replica)
+            .setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry)));
+        Gauge.builder("shareit.datasource.replicas.available", readWriteRoutingDataSource,
+                ReadWriteRoutingDataSource::getAvailableCount)
+            .register(meterRegistry);
+        return new ReplicaLagMonitor(readWriteRoutingDataSource, replicaProperties);
+    }
+}
@@ -0,0 +1,93 @@
+package ru.practicum.shareit.config;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Соединения транзакций, помеченных {@link ReplicaRoutingJpaDialect} как чтение с реплики, уходят на доступные
+ * реплики по кругу, все остальные - на основную базу. Если доступных реплик нет, чтение тоже идёт на основную базу.
+ *
+ * <p>Признак read-only выставляется уже после того, как менеджер транзакций взял соединение,
+ * поэтому источник должен стоять за {@link LazyConnectionDataSourceProxy}: тот берёт настоящее соединение
+ * только на первом запросе.
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+    // Имя read-only транзакции, которой можно читать с реплики
+    public static final String REPLICA = "replica";
+    static final String PRIMARY = "primary";
+    private static final ThreadLocal<Boolean> REPLICA_READ = ThreadLocal.withInitial(() -> false);
+
+    private final Map<String, DataSource> replicas;
+    private final List<String> replicaNames;
+    private final Set<String> available = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReadWriteRoutingDataSource(DataSource primary, Map<String, DataSource> replicas) {
+        this.replicas = replicas;
+        this.replicaNames = List.copyOf(replicas.keySet());
+
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    public void setAvailable(String replica, boolean isAvailable) {
+        boolean changed = isAvailable ? available.add(replica) : available.remove(replica);
+        if (changed) {
+            log.info("Реплика {} {} для чтения", replica, isAvailable ? "снова используется" : "исключена");
+        }
+    }
+
+    // Возвращает прежнее значение, чтобы вложенная транзакция вернула его по завершении
+    static boolean setReplicaRead(boolean replicaRead) {
+        boolean previous = REPLICA_READ.get();
+        REPLICA_READ.set(replicaRead);
+        return previous;
+    }
+
+    public int getAvailableCount() {
+        return available.size();
+    }
+
+    public Map<String, DataSource> getReplicas() {
+        return replicas;
+    }
+
+    // Основная база - отдельный бин и закрывается Spring, реплики создаются вместе с этим источником
+    @Override
+    public void close() throws Exception {
+        for (DataSource replica : replicas.values()) {
+            if (replica instanceof AutoCloseable) {
+                ((AutoCloseable) replica).close();
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!REPLICA_READ.get()) {
+            return PRIMARY;
+        }
+
+        List<String> candidates = replicaNames.stream()
+            .filter(available::contains)
+            .collect(Collectors.toList());
+        if (candidates.isEmpty()) {
+            return PRIMARY;
+        }
+
+        return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+    }
+}
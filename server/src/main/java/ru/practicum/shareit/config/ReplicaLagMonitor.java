@@ -0,0 +1,69 @@
+package ru.practicum.shareit.config;
+
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Периодически проверяет отставание реплик и включает в чтение только те, что отстают
+ * не больше {@code max-lag}. Недоступная реплика считается отстающей.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+    private final ReadWriteRoutingDataSource routingDataSource;
+    private final Map<String, JdbcTemplate> replicas;
+    private final ReplicaProperties properties;
+    private ScheduledExecutorService executor;
+
+    public ReplicaLagMonitor(ReadWriteRoutingDataSource routingDataSource, ReplicaProperties properties) {
+        this.routingDataSource = routingDataSource;
+        this.properties = properties;
+        this.replicas = routingDataSource.getReplicas().entrySet().stream()
+            .collect(Collectors.toMap(Map.Entry::getKey, entry -> {
+                JdbcTemplate jdbcTemplate = new JdbcTemplate(entry.getValue());
+                jdbcTemplate.setQueryTimeout((int) Math.max(1, properties.getCheckInterval().toSeconds()));
+                return jdbcTemplate;
+            }));
+    }
+
+    public void start() {
+        check();
+
+        long interval = properties.getCheckInterval().toMillis();
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::check, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    void check() {
+        replicas.forEach((name, jdbcTemplate) -> routingDataSource.setAvailable(name, isFresh(name, jdbcTemplate)));
+    }
+
+    private boolean isFresh(String name, JdbcTemplate jdbcTemplate) {
+        try {
+            Double lagSeconds = jdbcTemplate.queryForObject(properties.getLagQuery(), Double.class);
+            if (lagSeconds == null || lagSeconds * 1000 > properties.getMaxLag().toMillis()) {
+                log.warn("Реплика {} отстаёт на {} с при допустимых {}", name, lagSeconds, properties.getMaxLag());
+                return false;
+            }
+            return true;
+        } catch (DataAccessException e) {
+            log.warn("Реплика {} недоступна: {}", name, e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Реплики для чтения. Имя пользователя, пароль и драйвер - те же, что у {@code spring.datasource}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties("shareit.datasource.replica")
+public class ReplicaProperties {
+    private List<String> urls = new ArrayList<>();
+    private int maxPoolSize = 10;
+    // Реплика с большим отставанием исключается из чтения до следующей проверки
+    private Duration maxLag = Duration.ofSeconds(5);
+    private Duration checkInterval = Duration.ofSeconds(2);
+    // Отставание реплики в секундах; 0 - реплика догнала основную базу или это не реплика
+    private String lagQuery = "SELECT COALESCE(CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+        + "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END, 0)";
+}
@@ -0,0 +1,75 @@
+package ru.practicum.shareit.config;
+
+import java.sql.SQLException;
+import javax.persistence.CacheStoreMode;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import lombok.Value;
+import org.hibernate.CacheMode;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+/**
+ * Решает в начале транзакции, может ли она читать с реплики. Признака read-only для этого мало:
+ * {@code SimpleJpaRepository} открывает read-only транзакцию на каждый {@code findById} и {@code existsById},
+ * и без явной метки любое чтение сразу после записи уходило бы на отстающую реплику. С реплики читают только
+ * read-only транзакции с именем {@link ReadWriteRoutingDataSource#REPLICA} - шаги {@link ParallelReads#read}
+ * и {@link ParallelReads#fork} в списках. Метка из {@code @Transactional(label = ...)} сюда не доходит:
+ * {@code JpaTransactionManager} передаёт диалекту только обёртку над определением транзакции.
+ *
+ * <p>Такие транзакции читают кэш второго уровня и кэш запросов, но ничего в них не кладут
+ * ({@link CacheStoreMode#BYPASS}, в Hibernate это {@link CacheMode#GET}): прочитанная с реплики сущность
+ * попала бы в общий кэш уже после записи на основной базе и отдавалась бы всем, пока не истечёт регион.
+ * Если реплики отстают и чтение вернулось на основную базу, оно просто не наполнит кэш.
+ *
+ * <p>Вложенная транзакция ({@code REQUIRES_NEW}) решает заново, прежние метка и режим кэша возвращаются
+ * в {@link #cleanupTransaction}: сессия open-in-view переживает транзакцию.
+ */
+public class ReplicaRoutingJpaDialect extends HibernateJpaDialect {
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+        throws PersistenceException, SQLException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        boolean replicaRead = isReplicaRead(definition);
+        boolean previousReplicaRead = ReadWriteRoutingDataSource.setReplicaRead(replicaRead);
+        if (!replicaRead) {
+            return new ReplicaTransactionData(transactionData, previousReplicaRead, entityManager, null);
+        }
+
+        // Через свойство JPA, а не Session#setCacheMode: find() заново выводит режим из этого свойства
+        Object previousStoreMode = entityManager.getProperties().get(AvailableSettings.JPA_SHARED_CACHE_STORE_MODE);
+        entityManager.setProperty(AvailableSettings.JPA_SHARED_CACHE_STORE_MODE, CacheStoreMode.BYPASS);
+        return new ReplicaTransactionData(transactionData, previousReplicaRead, entityManager,
+            previousStoreMode != null ? previousStoreMode : CacheStoreMode.USE);
+    }
+
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        if (!(transactionData instanceof ReplicaTransactionData)) {
+            super.cleanupTransaction(transactionData);
+            return;
+        }
+
+        ReplicaTransactionData replicaTransactionData = (ReplicaTransactionData) transactionData;
+        ReadWriteRoutingDataSource.setReplicaRead(replicaTransactionData.isPreviousReplicaRead());
+        if (replicaTransactionData.getPreviousStoreMode() != null) {
+            replicaTransactionData.getEntityManager().setProperty(AvailableSettings.JPA_SHARED_CACHE_STORE_MODE,
+                replicaTransactionData.getPreviousStoreMode());
+        }
+        super.cleanupTransaction(replicaTransactionData.getTarget());
+    }
+
+    private static boolean isReplicaRead(TransactionDefinition definition) {
+        return definition.isReadOnly() && ReadWriteRoutingDataSource.REPLICA.equals(definition.getName());
+    }
+
+    @Value
+    private static class ReplicaTransactionData {
+        Object target;
+        boolean previousReplicaRead;
+        EntityManager entityManager;
+        Object previousStoreMode;
+    }
+}
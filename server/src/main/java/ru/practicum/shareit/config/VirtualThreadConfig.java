@@ -0,0 +1,84 @@
+package ru.practicum.shareit.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.concurrent.ExecutorService;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Режим виртуальных потоков: Tomcat обрабатывает каждый запрос в своём виртуальном потоке,
+ * асинхронные ответы MVC (выгрузка аренд) - тоже. Пока запрос ждёт базу, поток-носитель свободен,
+ * и пропускная способность упирается в пул соединений, а не в {@code server.tomcat.threads.max}.
+ *
+ * <p>Требует JDK 21 (сборка с профилем {@code jdk21}); на более старой JDK приложение не стартует.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty("shareit.threads.virtual.enabled")
+@EnableConfigurationProperties(VirtualThreadProperties.class)
+public class VirtualThreadConfig {
+    private static final int HIKARI_DEFAULT_POOL_SIZE = 10;
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor() {
+        log.info("Запросы обрабатываются на виртуальных потоках");
+        return VirtualThreads.newThreadPerTaskExecutor("http-vt-");
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandler(
+        ExecutorService virtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+
+    @Bean
+    public WebMvcConfigurer virtualThreadAsyncSupport(ExecutorService virtualThreadExecutor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                configurer.setTaskExecutor(new TaskExecutorAdapter(virtualThreadExecutor));
+            }
+        };
+    }
+
+    // Оборачивает итоговый DataSource (с репликами - их общий прокси), поэтому очередь одна на все пулы
+    @Bean
+    public static BeanPostProcessor fairQueueDataSourcePostProcessor(
+        ObjectProvider<VirtualThreadProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!"dataSource".equals(beanName) || !(bean instanceof DataSource)) {
+                    return bean;
+                }
+
+                VirtualThreadProperties virtualThreadProperties = properties.getObject();
+                DataSource dataSource = (DataSource) bean;
+                int maxConnections = virtualThreadProperties.getMaxConnections() != null
+                    ? virtualThreadProperties.getMaxConnections()
+                    : poolSize(dataSource);
+
+                log.info("Очередь к базе: не больше {} соединений одновременно", maxConnections);
+                return new FairQueueDataSource(dataSource, maxConnections, virtualThreadProperties.getQueueTimeout());
+            }
+        };
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        HikariDataSource hikari = DataSourceUnwrapper.unwrap(dataSource, HikariDataSource.class);
+        // До старта пула Hikari отдаёт -1, если размер не задан явно
+        return hikari != null && hikari.getMaximumPoolSize() > 0 ? hikari.getMaximumPoolSize() : HIKARI_DEFAULT_POOL_SIZE;
+    }
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Обработка запросов на виртуальных потоках (JDK 21+).
+ */
+@Getter
+@Setter
+@ConfigurationProperties("shareit.threads.virtual")
+public class VirtualThreadProperties {
+    private boolean enabled;
+    // Сколько запросов одновременно держат соединение; по умолчанию - размер пула Hikari
+    private Integer maxConnections;
+    // Сколько запрос ждёт своей очереди к базе, как connection-timeout у Hikari
+    private Duration queueTimeout = Duration.ofSeconds(30);
+}
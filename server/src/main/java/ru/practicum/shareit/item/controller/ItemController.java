@@ -1,7 +1,11 @@
 package ru.practicum.shareit.item.controller;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -11,10 +15,13 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.booking.controller.BookingController;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentInfoDto;
+import ru.practicum.shareit.item.dto.CommentPageDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemInfoDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
 import ru.practicum.shareit.item.service.ItemService;
 
 @RestController
@@ -61,10 +68,41 @@ public class ItemController {
         return service.searchItem(text, from, size);
     }
 
+    @GetMapping("/search/available")
+    public List<ItemDto> searchAvailableItem(@RequestParam String text,
+        @RequestParam @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime start,
+        @RequestParam @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime end,
+        @RequestParam(name = "from", defaultValue = "0") Integer from,
+        @RequestParam(name = "size", defaultValue = "10") Integer size) {
+
+        return service.searchAvailableItem(text, start, end, from, size);
+    }
+
+    @GetMapping("/autocomplete")
+    public List<ItemSuggestionDto> autocomplete(@RequestParam String prefix,
+        @RequestParam(name = "limit", defaultValue = "10") Integer limit) {
+
+        return service.autocomplete(prefix, limit);
+    }
+
     @PostMapping("/{itemId}/comment")
     public CommentInfoDto addComment(@RequestHeader("X-Sharer-User-Id") long userId, @PathVariable("itemId") long itemId,
                     @RequestBody CommentDto commentDto) {
 
         return service.addComment(userId, itemId, commentDto);
     }
+
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<List<CommentInfoDto>> getComments(@PathVariable("itemId") long itemId,
+        @RequestParam(name = "cursor", required = false) String cursor,
+        @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        CommentPageDto commentPage = service.getComments(itemId, cursor, size);
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.ok();
+
+        if (commentPage.getNextCursor() != null) {
+            responseBuilder.header(BookingController.NEXT_CURSOR_HEADER, commentPage.getNextCursor());
+        }
+
+        return responseBuilder.body(commentPage.getComments());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.item.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CommentPageDto {
+    private List<CommentInfoDto> comments;
+    private String nextCursor;
+}
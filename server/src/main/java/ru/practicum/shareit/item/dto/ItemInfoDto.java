@@ -10,7 +10,9 @@ public class ItemInfoDto {
     private String name;
     private String description;
     private Boolean available;
+    // Последние отзывы, все - через /items/{itemId}/comments
     private List<CommentInfoDto> comments;
+    private long commentCount;
     private BookingInfoDto lastBooking;
     private BookingInfoDto nextBooking;
 
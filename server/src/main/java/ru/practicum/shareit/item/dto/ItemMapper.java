@@ -1,11 +1,9 @@
 package ru.practicum.shareit.item.dto;
 
-import java.time.LocalDateTime;
-import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 import lombok.experimental.UtilityClass;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.storage.ItemBookingView;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
@@ -39,7 +37,8 @@ public class ItemMapper {
         return item;
     }
 
-    public ItemInfoDto toItemInfoDto(Item item, List<Booking> bookings, List<Comment> comments) {
+    public ItemInfoDto toItemInfoDto(Item item, ItemBookingView lastBooking, ItemBookingView nextBooking,
+        List<Comment> comments) {
         ItemInfoDto itemInfoDto = new ItemInfoDto();
 
         itemInfoDto.setId(item.getId());
@@ -51,22 +50,13 @@ public class ItemMapper {
             .map(CommentMapper::toCommentInfoDto)
             .collect(Collectors.toList());
         itemInfoDto.setComments(commentInfoDtoList);
-
-        LocalDateTime now = LocalDateTime.now();
-        Booking lastBooking = bookings.stream()
-            .filter(booking -> !booking.getStart().isAfter(now))
-            .max(Comparator.comparing(Booking::getStart))
-            .orElse(null);
-        Booking nextBooking = bookings.stream()
-            .filter(booking -> booking.getStart().isAfter(now))
-            .min(Comparator.comparing(Booking::getStart))
-            .orElse(null);
+        itemInfoDto.setCommentCount(item.getCommentCount());
 
         if (lastBooking != null) {
-            itemInfoDto.setLastBooking(new ItemInfoDto.BookingInfoDto(lastBooking.getId(), lastBooking.getBooker().getId()));
+            itemInfoDto.setLastBooking(new ItemInfoDto.BookingInfoDto(lastBooking.getId(), lastBooking.getBookerId()));
         }
         if (nextBooking != null) {
-            itemInfoDto.setNextBooking(new ItemInfoDto.BookingInfoDto(nextBooking.getId(), nextBooking.getBooker().getId()));
+            itemInfoDto.setNextBooking(new ItemInfoDto.BookingInfoDto(nextBooking.getId(), nextBooking.getBookerId()));
         }
 
         return itemInfoDto;
@@ -1,10 +1,13 @@
 package ru.practicum.shareit.item.service;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentInfoDto;
+import ru.practicum.shareit.item.dto.CommentPageDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemInfoDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
 
 public interface ItemService {
     ItemInfoDto getItemById(long userId, long itemId);
@@ -17,5 +20,11 @@ public interface ItemService {
 
     List<ItemDto> searchItem(String text, Integer from, Integer size);
 
+    List<ItemDto> searchAvailableItem(String text, LocalDateTime start, LocalDateTime end, Integer from, Integer size);
+
+    List<ItemSuggestionDto> autocomplete(String prefix, Integer limit);
+
     CommentInfoDto addComment(long userId, long itemId, CommentDto commentDto);
+
+    CommentPageDto getComments(long itemId, String cursor, Integer size);
 }
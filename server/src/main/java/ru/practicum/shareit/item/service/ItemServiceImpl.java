@@ -2,7 +2,7 @@ package ru.practicum.shareit.item.service;
 
 import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.toList;
-import static org.springframework.data.domain.Sort.Direction.DESC;
+import static java.util.stream.Collectors.toMap;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -10,26 +10,38 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.booking.storage.ItemAvailabilityIndex;
+import ru.practicum.shareit.booking.storage.ItemBookingView;
+import ru.practicum.shareit.config.ParallelReads;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.CommentCursor;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentInfoDto;
 import ru.practicum.shareit.item.dto.CommentMapper;
+import ru.practicum.shareit.item.dto.CommentPageDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemInfoDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.storage.CommentRepository;
+import ru.practicum.shareit.item.storage.ItemNameIndex;
 import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.item.storage.ItemSearch;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.storage.ItemRequestsRepository;
 import ru.practicum.shareit.user.model.User;
@@ -45,6 +57,10 @@ public class ItemServiceImpl implements ItemService {
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
+    private final ItemSearch itemSearch;
+    private final ItemNameIndex itemNameIndex;
+    private final ParallelReads parallelReads;
+    private final EntityManager entityManager;
 
     @Override
     public ItemInfoDto getItemById(long userId, long itemId) {
@@ -53,17 +69,28 @@ public class ItemServiceImpl implements ItemService {
         Item item = itemRepository.findById(itemId).orElseThrow(
             () -> new NotFoundException("Не найдена вещь с id:" + itemId));
 
-        List<Comment> comments = commentRepository.findByItem_Id(itemId);
+        // Карточку вещи открывают сразу после отзыва или аренды: ветки читают с основной базы
+        CompletableFuture<List<Comment>> comments = parallelReads.forkOnPrimary("item-comments",
+            () -> commentRepository.findByItem_Id(itemId,
+                PageRequest.of(0, CommentRepository.RECENT_COMMENTS_LIMIT, CommentRepository.NEWEST_FIRST)));
 
         if (userId == item.getOwner().getId()) {
-            List<Booking> bookings = bookingRepository.findByItem_IdAndStatusNot(itemId, BookingStatus.REJECTED);
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> itemIds = List.of(itemId);
+            CompletableFuture<Map<Long, ItemBookingView>> lastBookings = parallelReads.forkOnPrimary(
+                "item-last-booking",
+                () -> toItemBookingMap(bookingRepository.findLastBookings(itemIds, now, BookingStatus.REJECTED)));
+            CompletableFuture<Map<Long, ItemBookingView>> nextBookings = parallelReads.forkOnPrimary(
+                "item-next-booking",
+                () -> toItemBookingMap(bookingRepository.findNextBookings(itemIds, now, BookingStatus.REJECTED)));
             log.debug("Выгружена вещь с id = {}", itemId);
 
-            return ItemMapper.toItemInfoDto(item, bookings, comments);
+            return ItemMapper.toItemInfoDto(item, parallelReads.join(lastBookings).get(itemId),
+                parallelReads.join(nextBookings).get(itemId), parallelReads.join(comments));
         }
         log.debug("Выгружена вещь с id = {}", itemId);
 
-        return ItemMapper.toItemInfoDto(item, new ArrayList<>(), comments);
+        return ItemMapper.toItemInfoDto(item, null, null, parallelReads.join(comments));
     }
 
     @Override
@@ -73,21 +100,34 @@ public class ItemServiceImpl implements ItemService {
         validPagination(from, size);
 
         PageRequest pageRequest = PageRequest.of(from / size, size);
-        List<Item> items = itemRepository.findByOwnerId(userId, pageRequest).getContent();
+        List<Item> items = parallelReads.read("owner-items",
+            () -> itemRepository.findByOwnerId(userId, pageRequest).getContent());
 
-        Map<Item, List<Comment>> itemCommentsMap = commentRepository.findByItemIn(items, Sort.by(DESC, "created"))
-            .stream()
-            .collect(groupingBy(Comment::getItem, toList()));
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> itemIds = items.stream()
+            .map(Item::getId)
+            .collect(toList());
 
-        Map<Item, List<Booking>> itemBookingsMap = bookingRepository.findByItemInAndStatusNot(items, BookingStatus.REJECTED)
-            .stream()
-            .collect(groupingBy(Booking::getItem, toList()));
+        CompletableFuture<Map<Item, List<Comment>>> itemComments = parallelReads.fork("owner-items-comments",
+            () -> findRecentComments(itemIds).stream()
+                .collect(groupingBy(Comment::getItem, toList())));
+        CompletableFuture<Map<Long, ItemBookingView>> lastBookingsBranch = parallelReads.fork(
+            "owner-items-last-bookings",
+            () -> toItemBookingMap(bookingRepository.findLastBookings(itemIds, now, BookingStatus.REJECTED)));
+        CompletableFuture<Map<Long, ItemBookingView>> nextBookingsBranch = parallelReads.fork(
+            "owner-items-next-bookings",
+            () -> toItemBookingMap(bookingRepository.findNextBookings(itemIds, now, BookingStatus.REJECTED)));
+
+        Map<Item, List<Comment>> itemCommentsMap = parallelReads.join(itemComments);
+        Map<Long, ItemBookingView> lastBookings = parallelReads.join(lastBookingsBranch);
+        Map<Long, ItemBookingView> nextBookings = parallelReads.join(nextBookingsBranch);
 
         log.debug("Выгружен список товаров пользователя с id = {}", userId);
 
         return items.stream()
             .map(item -> ItemMapper.toItemInfoDto(item,
-                itemBookingsMap.getOrDefault(item, Collections.emptyList()),
+                lastBookings.get(item.getId()),
+                nextBookings.get(item.getId()),
                 itemCommentsMap.getOrDefault(item, Collections.emptyList())))
             .sorted(Comparator.comparing(ItemInfoDto::getId))
             .collect(toList());
@@ -106,6 +146,7 @@ public class ItemServiceImpl implements ItemService {
         }
 
         Item savedItem = itemRepository.save(item);
+        itemNameIndex.update(savedItem);
 
         return ItemMapper.toItemDto(savedItem);
     }
@@ -114,7 +155,7 @@ public class ItemServiceImpl implements ItemService {
     public ItemDto updateItem(ItemDto itemDto, long userId, long itemId) {
         log.info("Обновить товар с id = {}", itemId);
 
-        validUser(userId);
+        validUserExists(userId);
         Item item = validItem(itemId);
 
         if (itemDto.getName() != null) {
@@ -128,6 +169,7 @@ public class ItemServiceImpl implements ItemService {
         }
 
         itemRepository.save(item);
+        itemNameIndex.update(item);
 
         return ItemMapper.toItemDto(item);
     }
@@ -142,9 +184,8 @@ public class ItemServiceImpl implements ItemService {
             return new ArrayList<>();
         }
 
-        PageRequest pageRequest = PageRequest.of(from / size, size);
         List<ItemDto> itemDtoList = new ArrayList<>();
-        List<Item> items = itemRepository.searchItemByText(text, pageRequest).getContent();
+        List<Item> items = parallelReads.read("item-search", () -> itemSearch.search(text, from, size));
         if (!items.isEmpty()) {
             for (Item i : items) {
                 itemDtoList.add(ItemMapper.toItemDto(i));
@@ -155,6 +196,48 @@ public class ItemServiceImpl implements ItemService {
     }
 
     @Override
+    public List<ItemDto> searchAvailableItem(String text, LocalDateTime start, LocalDateTime end,
+        Integer from, Integer size) {
+        log.info("Поиск свободных с {} по {} товаров по значению {}", start, end, text.toUpperCase());
+
+        validPagination(from, size);
+
+        if (!start.isBefore(end)) {
+            throw new ValidationException("Начало периода должно быть раньше его окончания");
+        }
+
+        if (text.isBlank()) {
+            return new ArrayList<>();
+        }
+
+        PageRequest pageRequest = PageRequest.of(from / size, size);
+
+        return itemRepository.searchAvailableItemByText(text, start, end, ItemAvailabilityIndex.ACTIVE_STATUSES,
+                pageRequest)
+            .stream()
+            .map(ItemMapper::toItemDto)
+            .collect(toList());
+    }
+
+    @Override
+    public List<ItemSuggestionDto> autocomplete(String prefix, Integer limit) {
+        log.debug("Подсказки товаров по префиксу {}", prefix);
+
+        if (limit <= 0) {
+            throw new ValidationException("Количество подсказок должно быть положительным");
+        }
+
+        if (prefix.isBlank()) {
+            return new ArrayList<>();
+        }
+
+        return itemNameIndex.find(prefix.strip(), limit).entrySet().stream()
+            .map(entry -> new ItemSuggestionDto(entry.getKey(), entry.getValue()))
+            .collect(toList());
+    }
+
+    @Override
+    @Transactional
     public CommentInfoDto addComment(long userId, long itemId, CommentDto commentDto) {
         List<Booking> bookings = bookingRepository.findByBooker_IdAndItem_Id_AndEndBefore(
             userId, itemId, LocalDateTime.now());
@@ -169,17 +252,56 @@ public class ItemServiceImpl implements ItemService {
 
         User author = validUser(userId);
         Item item = validItem(itemId);
+        // Вещь уже могла попасть в сессию вместе с арендами: строка блокируется и перечитывается,
+        // иначе параллельные отзывы затирали бы приращения друг друга
+        entityManager.refresh(item, LockModeType.PESSIMISTIC_WRITE);
         Comment comment = CommentMapper.toComment(commentDto, author, item);
         Comment savedComment = commentRepository.save(comment);
+        item.setCommentCount(item.getCommentCount() + 1);
 
         return CommentMapper.toCommentInfoDto(savedComment);
     }
 
+    @Override
+    public CommentPageDto getComments(long itemId, String cursorToken, Integer size) {
+        log.info("Получить отзывы о вещи с id = {}", itemId);
+
+        if (size <= 0) {
+            throw new ValidationException("Размер страницы должен быть положительным");
+        }
+        CommentCursor cursor = CommentCursor.decode(cursorToken);
+        validItemExists(itemId);
+
+        PageRequest limit = PageRequest.of(0, size + 1, CommentRepository.NEWEST_FIRST);
+        List<Comment> comments = parallelReads.read("item-comments-page", () -> cursor == null
+            ? commentRepository.findByItem_Id(itemId, limit)
+            : commentRepository.findByItem_IdAfter(itemId, cursor.getCreated(), cursor.getId(),
+                PageRequest.of(0, size + 1)));
+        String nextCursor = null;
+
+        if (comments.size() > size) {
+            comments = comments.subList(0, size);
+            nextCursor = CommentCursor.of(comments.get(size - 1)).encode();
+        }
+
+        List<CommentInfoDto> commentInfoDtoList = comments.stream()
+            .map(CommentMapper::toCommentInfoDto)
+            .collect(toList());
+
+        return new CommentPageDto(commentInfoDtoList, nextCursor);
+    }
+
     private User validUser(Long userId) {
         return userRepository.findById(userId).orElseThrow(
             () -> new NotFoundException("Не найден пользователь с id: " + userId));
     }
 
+    private void validUserExists(long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException("Не найден пользователь с id: " + userId);
+        }
+    }
+
     private ItemRequest validItemRequest(Long itemRequestId) {
         return itemRequestsRepository.findById(itemRequestId).orElseThrow(
             () -> new NotFoundException("Не найден запрос аренды с id: " + itemRequestId));
@@ -190,6 +312,32 @@ public class ItemServiceImpl implements ItemService {
             () -> new NotFoundException("Не найден товар с id: " + itemId));
     }
 
+    private void validItemExists(long itemId) {
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException("Не найден товар с id: " + itemId);
+        }
+    }
+
+    private List<Comment> findRecentComments(List<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Long> commentIds = commentRepository.findRecentIdsByItemIds(itemIds,
+                CommentRepository.RECENT_COMMENTS_LIMIT).stream()
+            .map(Number::longValue)
+            .collect(toList());
+
+        return commentIds.isEmpty()
+            ? Collections.emptyList()
+            : commentRepository.findByIdIn(commentIds, CommentRepository.NEWEST_FIRST);
+    }
+
+    private Map<Long, ItemBookingView> toItemBookingMap(List<ItemBookingView> itemBookings) {
+        return itemBookings.stream()
+            .collect(toMap(ItemBookingView::getItemId, Function.identity(), (first, second) -> first));
+    }
+
     private void validPagination(Integer from, Integer size) {
         if (from < 0 || size < 0) {
             throw new ValidationException("Параметры пагинации не должны быть отрицательными");
@@ -1,16 +1,36 @@
 package ru.practicum.shareit.item.storage;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.model.Comment;
-import ru.practicum.shareit.item.model.Item;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    // Сколько последних отзывов отдаётся вместе с вещью
+    int RECENT_COMMENTS_LIMIT = 10;
+    Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "created", "id");
+
+    @EntityGraph(value = "Comment.ItemAndUser")
+    List<Comment> findByItem_Id(long itemId, Pageable pageable);
+
     @EntityGraph(value = "Comment.ItemAndUser")
-    List<Comment> findByItem_Id(Long itemId);
+    @Query("select c from Comment c " +
+        "where c.item.id = ?1 and (c.created < ?2 or (c.created = ?2 and c.id < ?3)) " +
+        "order by c.created desc, c.id desc")
+    List<Comment> findByItem_IdAfter(long itemId, LocalDateTime created, long id, Pageable pageable);
+
+    // Последние отзывы каждой вещи страницы: окно идёт по индексу (item_id, created desc, comment_id desc)
+    @Query(value = "select recent.comment_id from (" +
+        " select c.comment_id, row_number() over (partition by c.item_id " +
+        "  order by c.created desc, c.comment_id desc) as position " +
+        " from comments c where c.item_id in (?1)) recent " +
+        "where recent.position <= ?2", nativeQuery = true)
+    List<Number> findRecentIdsByItemIds(List<Long> itemIds, int limit);
 
     @EntityGraph(value = "Comment.ItemAndUser")
-    List<Comment> findByItemIn(List<Item> items, Sort sort);
+    List<Comment> findByIdIn(List<Long> ids, Sort sort);
 }
@@ -0,0 +1,162 @@
+package ru.practicum.shareit.item.storage;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import javax.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+
+/**
+ * Префиксное дерево по названиям доступных вещей для подсказок при наборе.
+ *
+ * <p>В дерево попадает название, начиная с каждого слова, без учёта регистра, поэтому
+ * "акк" находит "Дрель аккумуляторная". Поиск - спуск по префиксу и обход поддерева в алфавитном
+ * порядке до первых {@code limit} вещей, время не зависит от общего числа вещей.
+ *
+ * <p>Индекс строится при старте и обновляется из {@code ItemServiceImpl} при создании и изменении вещей.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemNameIndex {
+    private final ItemRepository itemRepository;
+    private final Node root = new Node();
+    private final Map<Long, String> namesById = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void load() {
+        List<ItemNameView> items = itemRepository.findAvailableItemNames();
+        items.forEach(item -> put(item.getId(), item.getName()));
+
+        log.info("Индекс названий вещей загружен, доступных вещей: {}", items.size());
+    }
+
+    public void update(Item item) {
+        if (Boolean.TRUE.equals(item.getAvailable())) {
+            put(item.getId(), item.getName());
+        } else {
+            remove(item.getId());
+        }
+    }
+
+    public Map<Long, String> find(String prefix, int limit) {
+        String key = prefix.toLowerCase();
+        Set<Long> itemIds = new LinkedHashSet<>();
+
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.children.get(key.charAt(i));
+            }
+            if (node != null) {
+                collect(node, itemIds, limit);
+            }
+
+            Map<Long, String> suggestions = new LinkedHashMap<>();
+            itemIds.forEach(itemId -> suggestions.put(itemId, namesById.get(itemId)));
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(long itemId, String name) {
+        lock.writeLock().lock();
+        try {
+            String indexedName = namesById.get(itemId);
+            if (name.equals(indexedName)) {
+                return;
+            }
+            if (indexedName != null) {
+                removeKeys(itemId, indexedName);
+            }
+
+            namesById.put(itemId, name);
+            for (String key : keys(name)) {
+                Node node = root;
+                for (int i = 0; i < key.length(); i++) {
+                    node = node.children.computeIfAbsent(key.charAt(i), c -> new Node());
+                }
+                node.itemIds.add(itemId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(long itemId) {
+        lock.writeLock().lock();
+        try {
+            String indexedName = namesById.remove(itemId);
+            if (indexedName != null) {
+                removeKeys(itemId, indexedName);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeKeys(long itemId, String name) {
+        for (String key : keys(name)) {
+            removeKey(root, key, 0, itemId);
+        }
+    }
+
+    private boolean removeKey(Node node, String key, int depth, long itemId) {
+        if (depth == key.length()) {
+            node.itemIds.remove(itemId);
+        } else {
+            Node child = node.children.get(key.charAt(depth));
+            if (child != null && removeKey(child, key, depth + 1, itemId)) {
+                node.children.remove(key.charAt(depth));
+            }
+        }
+
+        return node.itemIds.isEmpty() && node.children.isEmpty();
+    }
+
+    private void collect(Node node, Set<Long> itemIds, int limit) {
+        for (Long itemId : node.itemIds) {
+            if (itemIds.size() == limit) {
+                return;
+            }
+            itemIds.add(itemId);
+        }
+        for (Node child : node.children.values()) {
+            if (itemIds.size() == limit) {
+                return;
+            }
+            collect(child, itemIds, limit);
+        }
+    }
+
+    private static Set<String> keys(String name) {
+        String lowerName = name.toLowerCase();
+        Set<String> keys = new LinkedHashSet<>();
+
+        for (int i = 0; i < lowerName.length(); i++) {
+            boolean wordStart = i == 0 || !Character.isLetterOrDigit(lowerName.charAt(i - 1));
+            if (wordStart && Character.isLetterOrDigit(lowerName.charAt(i))) {
+                keys.add(lowerName.substring(i));
+            }
+        }
+
+        return keys;
+    }
+
+    private static class Node {
+        private final Map<Character, Node> children = new TreeMap<>();
+        private final Set<Long> itemIds = new LinkedHashSet<>();
+    }
+}
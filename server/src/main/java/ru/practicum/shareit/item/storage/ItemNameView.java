@@ -0,0 +1,7 @@
+package ru.practicum.shareit.item.storage;
+
+public interface ItemNameView {
+    Long getId();
+
+    String getName();
+}
@@ -1,11 +1,18 @@
 package ru.practicum.shareit.item.storage;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
+import java.time.LocalDateTime;
 import java.util.List;
+import javax.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.model.ItemRequest;
 
@@ -15,12 +22,39 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
 
     @EntityGraph(value = "Item.UsersAndRequests")
     @Query(" select i from Item i " +
-        "where upper(i.name) like upper(concat('%', ?1, '%')) " +
-        " or upper(i.description) like upper(concat('%', ?1, '%')) " +
-        "and available = true")
+        "where i.available = true " +
+        "and (upper(i.name) like upper(concat('%', ?1, '%')) " +
+        " or upper(i.description) like upper(concat('%', ?1, '%')))")
     Page<Item> searchItemByText(String text, PageRequest pageRequest);
 
+    @Query(value = "select i.* from items i " +
+        "where i.available = true " +
+        "and (i.search_vector @@ (plainto_tsquery('russian', ?1) || plainto_tsquery('english', ?1)) " +
+        " or i.name ilike concat('%', ?1, '%') " +
+        " or i.description ilike concat('%', ?1, '%')) " +
+        "order by ts_rank(i.search_vector, plainto_tsquery('russian', ?1) || plainto_tsquery('english', ?1)) desc, " +
+        " i.item_id " +
+        "limit ?2 offset ?3", nativeQuery = true)
+    List<Item> searchItemByFullText(String text, int limit, int offset);
+
+    // Slice, а не Page: клиенту не нужно общее число, а COUNT с not exists стоит столько же, сколько сама выборка
+    @EntityGraph(value = "Item.UsersAndRequests")
+    @Query(" select i from Item i " +
+        "where i.available = true " +
+        "and (upper(i.name) like upper(concat('%', ?1, '%')) " +
+        " or upper(i.description) like upper(concat('%', ?1, '%'))) " +
+        "and not exists (select b.id from Booking b " +
+        " where b.item = i and b.status in ?4 and b.start < ?3 and b.end > ?2) " +
+        "order by i.id")
+    Slice<Item> searchAvailableItemByText(String text, LocalDateTime start, LocalDateTime end,
+        List<BookingStatus> statuses, PageRequest pageRequest);
+
+    @Query("select i.id as id, i.name as name from Item i where i.available = true")
+    List<ItemNameView> findAvailableItemNames();
+
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     List<Item> findByItemRequestIn(List<ItemRequest> itemRequestList);
 
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     List<Item> findByItemRequest(ItemRequest itemRequest);
 }
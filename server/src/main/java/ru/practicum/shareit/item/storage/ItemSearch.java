@@ -0,0 +1,42 @@
+package ru.practicum.shareit.item.storage;
+
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+
+/**
+ * Поиск доступных вещей по тексту в названии и описании.
+ *
+ * <p>В режиме {@link Mode#FULL_TEXT} используется полнотекстовый индекс Postgres
+ * ({@code items.search_vector} и GIN-индексы из миграции V2 для Postgres): слова приводятся к основе
+ * русским и английским словарями, результаты упорядочены по релевантности, а совпадения по части слова
+ * находит триграммный индекс. Режим {@link Mode#LIKE} - переносимый поиск подстроки для H2.
+ */
+@Component
+public class ItemSearch {
+    private final ItemRepository itemRepository;
+    private final Mode mode;
+
+    public ItemSearch(ItemRepository itemRepository,
+        @Value("${shareit.item.search.mode:LIKE}") Mode mode) {
+        this.itemRepository = itemRepository;
+        this.mode = mode;
+    }
+
+    public List<Item> search(String text, int from, int size) {
+        if (mode == Mode.FULL_TEXT) {
+            return itemRepository.searchItemByFullText(text, size, from / size * size);
+        }
+
+        return itemRepository.searchItemByText(text, PageRequest.of(from / size, size)).getContent();
+    }
+
+    public enum Mode {
+        // Postgres: tsvector + GIN с ранжированием, триграммы для подстрок
+        FULL_TEXT,
+        // Любая база: upper(...) like '%x%' без индекса
+        LIKE
+    }
+}
@@ -7,12 +7,15 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import lombok.RequiredArgsConstructor;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Sort.Direction;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.config.ParallelReads;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.model.Item;
@@ -32,6 +35,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRequestsRepository itemRequestsRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final ParallelReads parallelReads;
 
     @Override
     public ItemRequestInfoDto createItemRequest(long userId, ItemRequestDto itemRequestDto) {
@@ -53,11 +57,19 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     @Override
     public List<ItemRequestInfoDto> getRequestsByUserId(long userId) {
-        validUser(userId);
+        CompletableFuture<Boolean> userExists = forkUserExists(userId);
         Sort sort = Sort.by(Direction.DESC, "created");
 
-        List<ItemRequest> itemRequestList = itemRequestsRepository.findByRequesterId(userId, sort);
-        Map<ItemRequest, List<Item>> itemRequestListMap = createRequestAndItemsMap(itemRequestList);
+        // Запросы и вещи по ним - одной веткой: вещи группируются по запросам из той же сессии
+        CompletableFuture<RequestsWithItems> requests = parallelReads.forkOnPrimary("user-requests", () -> {
+            List<ItemRequest> itemRequestList = itemRequestsRepository.findByRequesterId(userId, sort);
+            return new RequestsWithItems(itemRequestList, createRequestAndItemsMap(itemRequestList));
+        });
+
+        validUserExists(userId, userExists);
+        RequestsWithItems requestsWithItems = parallelReads.join(requests);
+        List<ItemRequest> itemRequestList = requestsWithItems.getRequests();
+        Map<ItemRequest, List<Item>> itemRequestListMap = requestsWithItems.getItems();
 
         log.info("Получен список запросов пользователя с id: {}", userId);
 
@@ -67,16 +79,24 @@ public class ItemRequestServiceImpl implements ItemRequestService {
             .collect(toList());
     }
 
+    // Лента чужих запросов была read-only и раньше: её ветка читает с реплики
     @Override
     public List<ItemRequestInfoDto> getRequests(long userId, Integer from, Integer size) {
-        validUser(userId);
         validPagination(from, size);
+        CompletableFuture<Boolean> userExists = forkUserExists(userId);
         Sort sort = Sort.by(Direction.DESC, "created");
         PageRequest pageRequest = PageRequest.of(from / size, size, sort);
 
-        List<ItemRequest> itemRequestList = itemRequestsRepository.findByRequesterIdNot(userId, pageRequest)
-            .getContent();
-        Map<ItemRequest, List<Item>> itemRequestListMap = createRequestAndItemsMap(itemRequestList);
+        CompletableFuture<RequestsWithItems> requests = parallelReads.fork("other-users-requests", () -> {
+            List<ItemRequest> itemRequestList = itemRequestsRepository.findByRequesterIdNot(userId, pageRequest)
+                .getContent();
+            return new RequestsWithItems(itemRequestList, createRequestAndItemsMap(itemRequestList));
+        });
+
+        validUserExists(userId, userExists);
+        RequestsWithItems requestsWithItems = parallelReads.join(requests);
+        List<ItemRequest> itemRequestList = requestsWithItems.getRequests();
+        Map<ItemRequest, List<Item>> itemRequestListMap = requestsWithItems.getItems();
 
         log.info("Получен список запросов для пользователя с id: {}", userId);
 
@@ -88,10 +108,14 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     @Override
     public ItemRequestInfoDto getRequestById(long userId, long requestId) {
-        validUser(userId);
-        ItemRequest itemRequest = validItemRequest(requestId);
+        CompletableFuture<Boolean> userExists = forkUserExists(userId);
+        CompletableFuture<ItemRequest> request = parallelReads.forkOnPrimary("request",
+            () -> validItemRequest(requestId));
 
-        List<Item> items = itemRepository.findByItemRequest(itemRequest);
+        validUserExists(userId, userExists);
+        ItemRequest itemRequest = parallelReads.join(request);
+        List<Item> items = parallelReads.readOnPrimary("request-items",
+            () -> itemRepository.findByItemRequest(itemRequest));
 
         log.info("Получена аренда с id: {}", requestId);
 
@@ -103,6 +127,17 @@ public class ItemRequestServiceImpl implements ItemRequestService {
             () -> new NotFoundException("Не найден пользователь с id: " + userId));
     }
 
+    // Пользователь только что зарегистрирован - реплика могла его ещё не получить
+    private CompletableFuture<Boolean> forkUserExists(long userId) {
+        return parallelReads.forkOnPrimary("user-exists", () -> userRepository.existsById(userId));
+    }
+
+    private void validUserExists(long userId, CompletableFuture<Boolean> userExists) {
+        if (!parallelReads.join(userExists)) {
+            throw new NotFoundException("Не найден пользователь с id: " + userId);
+        }
+    }
+
     private ItemRequest validItemRequest(long requestId) {
         return itemRequestsRepository.findById(requestId).orElseThrow(
             () -> new NotFoundException("Не найдена аренда с id: " + requestId));
@@ -119,4 +154,10 @@ public class ItemRequestServiceImpl implements ItemRequestService {
             throw new ValidationException("Параметры пагинации не должны быть отрицательными");
         }
     }
+
+    @Value
+    private static class RequestsWithItems {
+        List<ItemRequest> requests;
+        Map<ItemRequest, List<Item>> items;
+    }
 }
@@ -1,13 +1,18 @@
 package ru.practicum.shareit.request.storage;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 import java.util.List;
+import javax.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.practicum.shareit.request.model.ItemRequest;
 
 public interface ItemRequestsRepository extends JpaRepository<ItemRequest, Long> {
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     List<ItemRequest> findByRequesterId(Long requesterId, Sort sort);
 
     Page<ItemRequest> findByRequesterIdNot(long requesterId, PageRequest pageRequest);
@@ -54,9 +54,7 @@ public class UserServiceImpl implements UserService {
     public UserDto updateUser(UserDto userDto, long userId) {
         log.info("Обновить пользователя с id = {}", userId);
 
-        validUser(userId);
-
-        User user = UserMapper.toUser(getUserById(userId));
+        User user = validUser(userId);
 
         if (userDto.getName() != null) {
             user.setName(userDto.getName());
@@ -1,7 +1,17 @@
 package ru.practicum.shareit.user.storage;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
+import javax.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.practicum.shareit.user.model.User;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+    // Собственный запрос вместо existsById из SimpleJpaRepository: тот строит count-запрос без подсказок,
+    // а этот кэшируется в кэше запросов и сбрасывается при любом изменении таблицы users
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query("select case when count(u) > 0 then true else false end from User u where u.id = ?1")
+    boolean existsById(Long id);
 }
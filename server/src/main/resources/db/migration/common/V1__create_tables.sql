@@ -48,4 +48,14 @@ created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
 CONSTRAINT comments_pk PRIMARY KEY (comment_id),
 CONSTRAINT comments_items_fk FOREIGN KEY (item_id) REFERENCES public.items(item_id),
 CONSTRAINT comments_users_fk FOREIGN KEY (author_id) REFERENCES public.users(user_id)
-);
\ No newline at end of file
+);
+
+CREATE INDEX IF NOT EXISTS bookings_booker_start_idx ON bookings (booker_id, start_date_time);
+
+CREATE INDEX IF NOT EXISTS bookings_item_start_idx ON bookings (item_id, start_date_time);
+
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS requests_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
@@ -0,0 +1,15 @@
+-- ItemRepository.findByOwnerId
+CREATE INDEX IF NOT EXISTS items_owner_idx ON items (owner_id, item_id);
+-- ItemRepository.findByItemRequest, findByItemRequestIn
+CREATE INDEX IF NOT EXISTS items_request_idx ON items (request_id);
+
+-- CommentRepository.findByItem_Id, findByItemIn(..., created desc)
+CREATE INDEX IF NOT EXISTS comments_item_created_idx ON comments (item_id, created);
+
+-- ItemRequestsRepository.findByRequesterId(..., created desc)
+CREATE INDEX IF NOT EXISTS requests_requester_created_idx ON requests (requester_id, created);
+-- ItemRequestsRepository.findByRequesterIdNot: страница по created desc
+CREATE INDEX IF NOT EXISTS requests_created_idx ON requests (created);
+
+-- BookingRepository.findByBooker_IdAndItem_Id_AndEndBefore: право оставить отзыв
+CREATE INDEX IF NOT EXISTS bookings_booker_item_end_idx ON bookings (booker_id, item_id, end_date_time);
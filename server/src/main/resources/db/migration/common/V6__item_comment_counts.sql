@@ -0,0 +1,8 @@
+-- Счётчик отзывов вещи: ответы по вещам отдают его и только последние отзывы, а не все
+ALTER TABLE items ADD COLUMN IF NOT EXISTS comment_count BIGINT NOT NULL DEFAULT 0;
+
+UPDATE items SET comment_count = (SELECT COUNT(*) FROM comments c WHERE c.item_id = items.item_id);
+
+-- CommentRepository: последние отзывы вещей и страницы отзывов по курсору (created, comment_id)
+CREATE INDEX IF NOT EXISTS comments_item_created_id_idx ON comments (item_id, created DESC, comment_id DESC);
+DROP INDEX IF EXISTS comments_item_created_idx;
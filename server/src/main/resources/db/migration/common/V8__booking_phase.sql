@@ -0,0 +1,20 @@
+-- Фаза аренды по времени: FUTURE до начала, CURRENT до окончания, PAST после. Её двигает BookingPhaseScheduler,
+-- поэтому списки CURRENT/PAST/FUTURE сводятся к равенству по phase вместо сравнения дат с текущим моментом
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS phase VARCHAR(16);
+UPDATE bookings SET phase = CASE
+    WHEN end_date_time <= LOCALTIMESTAMP THEN 'PAST'
+    WHEN start_date_time > LOCALTIMESTAMP THEN 'FUTURE'
+    ELSE 'CURRENT'
+END
+WHERE phase IS NULL;
+ALTER TABLE bookings ALTER COLUMN phase SET NOT NULL;
+
+-- Секции из bookings_archive (Postgres, V5) копируются туда через SELECT *, столбцы должны совпадать
+ALTER TABLE IF EXISTS bookings_archive ADD COLUMN IF NOT EXISTS phase VARCHAR(16);
+
+-- BookingQuery.inState(CURRENT, PAST, FUTURE) для арендатора и владельца
+CREATE INDEX IF NOT EXISTS bookings_booker_phase_start_idx ON bookings (booker_id, phase, start_date_time);
+CREATE INDEX IF NOT EXISTS bookings_item_phase_start_idx ON bookings (item_id, phase, start_date_time);
+-- BookingPhaseScheduler: ближайшие границы и переходы FUTURE -> CURRENT по началу, в PAST по окончанию
+CREATE INDEX IF NOT EXISTS bookings_phase_start_idx ON bookings (phase, start_date_time);
+CREATE INDEX IF NOT EXISTS bookings_phase_end_idx ON bookings (phase, end_date_time);
@@ -0,0 +1,14 @@
+-- Выгрузка истории читает bookings вместе с bookings_archive. В Postgres архив создан в V5 и здесь ничего
+-- не меняется, в остальных базах секционирования нет и архив просто остаётся пустым
+CREATE TABLE IF NOT EXISTS bookings_archive (
+booking_id BIGINT NOT NULL,
+start_date_time TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+end_date_time TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+item_id BIGINT,
+booker_id BIGINT,
+status VARCHAR(24),
+phase VARCHAR(16),
+CONSTRAINT bookings_archive_pk PRIMARY KEY (booking_id)
+);
+CREATE INDEX IF NOT EXISTS bookings_archive_booker_start_idx ON bookings_archive (booker_id, start_date_time);
+CREATE INDEX IF NOT EXISTS bookings_archive_item_start_idx ON bookings_archive (item_id, start_date_time);
@@ -0,0 +1,42 @@
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE bookings DROP CONSTRAINT IF EXISTS bookings_no_overlap;
+ALTER TABLE bookings ADD CONSTRAINT bookings_no_overlap EXCLUDE USING gist (
+item_id WITH =,
+tsrange(start_date_time, end_date_time) WITH &&
+) WHERE (status IN ('WAITING', 'APPROVED'));
+
+CREATE INDEX IF NOT EXISTS bookings_booker_waiting_idx ON bookings (booker_id, start_date_time)
+WHERE status = 'WAITING';
+CREATE INDEX IF NOT EXISTS bookings_booker_rejected_idx ON bookings (booker_id, start_date_time)
+WHERE status = 'REJECTED';
+CREATE INDEX IF NOT EXISTS bookings_item_waiting_idx ON bookings (item_id, start_date_time)
+WHERE status = 'WAITING';
+CREATE INDEX IF NOT EXISTS bookings_item_rejected_idx ON bookings (item_id, start_date_time)
+WHERE status = 'REJECTED';
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+setweight(to_tsvector('russian', coalesce(name, '')), 'A') ||
+setweight(to_tsvector('english', coalesce(name, '')), 'A') ||
+setweight(to_tsvector('russian', coalesce(description, '')), 'B') ||
+setweight(to_tsvector('english', coalesce(description, '')), 'B')
+) STORED;
+
+CREATE INDEX IF NOT EXISTS items_search_vector_idx ON items USING gin (search_vector);
+CREATE INDEX IF NOT EXISTS items_name_trgm_idx ON items USING gin (name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS items_description_trgm_idx ON items USING gin (description gin_trgm_ops);
+
+-- Перенос счётчиков с identity-колонок на последовательности: сдвигаем последовательность,
+-- только если в таблице уже есть id не меньше её значения (база, заполненная до перехода)
+SELECT setval('users_seq', (SELECT max(user_id) FROM users))
+WHERE (SELECT max(user_id) FROM users) >= (SELECT last_value FROM users_seq);
+SELECT setval('items_seq', (SELECT max(item_id) FROM items))
+WHERE (SELECT max(item_id) FROM items) >= (SELECT last_value FROM items_seq);
+SELECT setval('bookings_seq', (SELECT max(booking_id) FROM bookings))
+WHERE (SELECT max(booking_id) FROM bookings) >= (SELECT last_value FROM bookings_seq);
+SELECT setval('requests_seq', (SELECT max(request_id) FROM requests))
+WHERE (SELECT max(request_id) FROM requests) >= (SELECT last_value FROM requests_seq);
+SELECT setval('comments_seq', (SELECT max(comment_id) FROM comments))
+WHERE (SELECT max(comment_id) FROM comments) >= (SELECT last_value FROM comments_seq);
@@ -0,0 +1,8 @@
+-- Активные (WAITING и APPROVED) аренды вещи за интервал: проверка занятости в режиме SHARED,
+-- пакетное создание аренд и поиск свободных вещей (searchAvailableItemByText)
+CREATE INDEX IF NOT EXISTS bookings_item_active_idx ON bookings (item_id, start_date_time, end_date_time)
+WHERE status IN ('WAITING', 'APPROVED');
+
+-- ItemAvailabilityIndex.load: активные аренды, которые ещё не закончились
+CREATE INDEX IF NOT EXISTS bookings_active_end_idx ON bookings (end_date_time)
+WHERE status IN ('WAITING', 'APPROVED');
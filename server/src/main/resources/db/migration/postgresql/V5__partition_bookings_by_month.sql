@@ -0,0 +1,146 @@
+-- Аренды разбиваются на помесячные секции по start_date_time. Первичный ключ секционированной таблицы
+-- обязан включать ключ секционирования, поэтому он (booking_id, start_date_time); booking_id по-прежнему
+-- уникален - его выдаёт bookings_seq.
+ALTER TABLE bookings RENAME TO bookings_unpartitioned;
+ALTER TABLE bookings_unpartitioned RENAME CONSTRAINT bookings_pk TO bookings_unpartitioned_pk;
+ALTER TABLE bookings_unpartitioned DROP CONSTRAINT IF EXISTS bookings_no_overlap;
+
+CREATE TABLE bookings (
+booking_id BIGINT NOT NULL,
+start_date_time TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+end_date_time TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+item_id BIGINT,
+booker_id BIGINT,
+status VARCHAR(24),
+CONSTRAINT bookings_pk PRIMARY KEY (booking_id, start_date_time),
+CONSTRAINT bookings_items_fk FOREIGN KEY (item_id) REFERENCES public.items(item_id),
+CONSTRAINT bookings_users_fk FOREIGN KEY (booker_id) REFERENCES public.users(user_id)
+) PARTITION BY RANGE (start_date_time);
+
+-- Аренды за пределами созданных секций (далеко в будущем или в уже заархивированных месяцах)
+CREATE TABLE bookings_default PARTITION OF bookings DEFAULT;
+
+-- Архив: отсоединённые старые секции, запросы приложения сюда не обращаются
+CREATE TABLE IF NOT EXISTS bookings_archive (
+booking_id BIGINT NOT NULL,
+start_date_time TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+end_date_time TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+item_id BIGINT,
+booker_id BIGINT,
+status VARCHAR(24),
+CONSTRAINT bookings_archive_pk PRIMARY KEY (booking_id)
+);
+CREATE INDEX IF NOT EXISTS bookings_archive_booker_start_idx ON bookings_archive (booker_id, start_date_time);
+CREATE INDEX IF NOT EXISTS bookings_archive_item_start_idx ON bookings_archive (item_id, start_date_time);
+
+-- Секция bookings_pYYYYMM за месяц, в который попадает for_date. Строки этого месяца, уже лежащие
+-- в bookings_default, переносятся в новую секцию до присоединения, иначе ATTACH не пройдёт проверку.
+CREATE OR REPLACE FUNCTION bookings_create_partition(for_date DATE) RETURNS BOOLEAN AS $$
+DECLARE
+    lower_bound DATE := date_trunc('month', for_date)::DATE;
+    upper_bound DATE := (date_trunc('month', for_date) + INTERVAL '1 month')::DATE;
+    partition_name TEXT := 'bookings_p' || to_char(for_date, 'YYYYMM');
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I (LIKE bookings INCLUDING DEFAULTS)', partition_name);
+    EXECUTE format('WITH moved AS (DELETE FROM bookings_default '
+        || 'WHERE start_date_time >= %L AND start_date_time < %L RETURNING *) '
+        || 'INSERT INTO %I SELECT * FROM moved', lower_bound, upper_bound, partition_name);
+    EXECUTE format('ALTER TABLE bookings ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+        partition_name, lower_bound, upper_bound);
+    RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Секции с текущего месяца на months_ahead месяцев вперёд, возвращает число созданных
+CREATE OR REPLACE FUNCTION bookings_create_partitions(months_ahead INTEGER) RETURNS INTEGER AS $$
+DECLARE
+    created INTEGER := 0;
+BEGIN
+    FOR i IN 0..months_ahead LOOP
+        IF bookings_create_partition((date_trunc('month', now()) + make_interval(months => i))::DATE) THEN
+            created := created + 1;
+        END IF;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Переносит в bookings_archive секции месяцев, закончившихся до cutoff, возвращает число перенесённых
+CREATE OR REPLACE FUNCTION bookings_archive_partitions(cutoff DATE) RETURNS INTEGER AS $$
+DECLARE
+    partition_name TEXT;
+    archived INTEGER := 0;
+BEGIN
+    FOR partition_name IN
+        SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'bookings'::regclass AND c.relname ~ '^bookings_p[0-9]{6}$'
+        ORDER BY c.relname
+    LOOP
+        IF to_date(substr(partition_name, 11), 'YYYYMM') + INTERVAL '1 month' <= cutoff THEN
+            EXECUTE format('ALTER TABLE bookings DETACH PARTITION %I', partition_name);
+            EXECUTE format('INSERT INTO bookings_archive SELECT * FROM %I', partition_name);
+            EXECUTE format('DROP TABLE %I', partition_name);
+            archived := archived + 1;
+        END IF;
+    END LOOP;
+    RETURN archived;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT bookings_create_partition(m::DATE)
+FROM generate_series(
+    date_trunc('month', least(coalesce((SELECT min(start_date_time) FROM bookings_unpartitioned), now()), now())),
+    date_trunc('month', now()) + INTERVAL '12 months',
+    INTERVAL '1 month') AS m;
+
+INSERT INTO bookings (booking_id, start_date_time, end_date_time, item_id, booker_id, status)
+SELECT booking_id, start_date_time, end_date_time, item_id, booker_id, status FROM bookings_unpartitioned;
+
+DROP TABLE bookings_unpartitioned;
+
+-- Индексы создаются на секционированной таблице и наследуются каждой секцией, в том числе будущими
+CREATE INDEX IF NOT EXISTS bookings_booker_start_idx ON bookings (booker_id, start_date_time);
+CREATE INDEX IF NOT EXISTS bookings_item_start_idx ON bookings (item_id, start_date_time);
+CREATE INDEX IF NOT EXISTS bookings_booker_item_end_idx ON bookings (booker_id, item_id, end_date_time);
+CREATE INDEX IF NOT EXISTS bookings_booker_waiting_idx ON bookings (booker_id, start_date_time)
+WHERE status = 'WAITING';
+CREATE INDEX IF NOT EXISTS bookings_booker_rejected_idx ON bookings (booker_id, start_date_time)
+WHERE status = 'REJECTED';
+CREATE INDEX IF NOT EXISTS bookings_item_waiting_idx ON bookings (item_id, start_date_time)
+WHERE status = 'WAITING';
+CREATE INDEX IF NOT EXISTS bookings_item_rejected_idx ON bookings (item_id, start_date_time)
+WHERE status = 'REJECTED';
+CREATE INDEX IF NOT EXISTS bookings_item_active_idx ON bookings (item_id, start_date_time, end_date_time)
+WHERE status IN ('WAITING', 'APPROVED');
+CREATE INDEX IF NOT EXISTS bookings_active_end_idx ON bookings (end_date_time)
+WHERE status IN ('WAITING', 'APPROVED');
+
+-- Exclusion constraint действует только внутри одной секции, а аренда может пересекаться с арендой
+-- из соседнего месяца. Поэтому пересечения по всей таблице проверяет триггер: блокировка по item_id
+-- упорядочивает конкурирующие вставки одной вещи, ошибка - та же exclusion_violation (23P01),
+-- что давал bookings_no_overlap.
+CREATE OR REPLACE FUNCTION bookings_check_overlap() RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.status IN ('WAITING', 'APPROVED') THEN
+        PERFORM pg_advisory_xact_lock(NEW.item_id);
+
+        IF EXISTS (SELECT 1 FROM bookings b
+            WHERE b.item_id = NEW.item_id
+              AND b.booking_id <> NEW.booking_id
+              AND b.status IN ('WAITING', 'APPROVED')
+              AND b.start_date_time < NEW.end_date_time
+              AND b.end_date_time > NEW.start_date_time) THEN
+            RAISE EXCEPTION 'Аренда вещи % пересекается с другой арендой', NEW.item_id
+                USING ERRCODE = 'exclusion_violation', CONSTRAINT = 'bookings_no_overlap';
+        END IF;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER bookings_no_overlap BEFORE INSERT OR UPDATE ON bookings
+FOR EACH ROW EXECUTE FUNCTION bookings_check_overlap();
@@ -0,0 +1,6 @@
+-- Фазы аренд (V8) обновляются пачками по расписанию, а пересечения могут появиться только при смене дат,
+-- вещи или статуса - на остальные обновления триггер bookings_no_overlap не срабатывает
+DROP TRIGGER IF EXISTS bookings_no_overlap ON bookings;
+CREATE TRIGGER bookings_no_overlap BEFORE INSERT OR UPDATE OF start_date_time, end_date_time, item_id, status
+ON bookings
+FOR EACH ROW EXECUTE FUNCTION bookings_check_overlap();
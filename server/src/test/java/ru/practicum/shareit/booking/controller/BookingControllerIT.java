@@ -7,12 +7,17 @@ import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 import org.junit.jupiter.api.Test;
@@ -20,9 +25,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingExportFormat;
 import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.dto.OwnerBookingStatsDto;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.NotFoundException;
 
 @WebMvcTest(controllers = BookingController.class)
 class BookingControllerIT {
@@ -103,6 +114,51 @@ class BookingControllerIT {
 
     }
 
+    @Test
+    void getOwnerStats_whenWindowGiven_thenPassWindowToService() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2026, 9, 1, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2026, 10, 1, 0, 0);
+        OwnerBookingStatsDto stats = new OwnerBookingStatsDto();
+        stats.setStart(start);
+        stats.setEnd(end);
+        stats.setUtilization(12.5);
+
+        when(bookingService.getOwnerStats(1L, start, end)).thenReturn(stats);
+
+        String result = mockMvc.perform(get("/bookings/owner/stats")
+                .header("X-Sharer-User-Id", 1)
+                .param("start", "2026-09-01T00:00:00")
+                .param("end", "2026-10-01T00:00:00"))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString(StandardCharsets.UTF_8);
+
+        assertEquals(objectMapper.writeValueAsString(stats), result);
+    }
+
+    @Test
+    void getBookingPageByUserId_whenNextPageExists_thenReturnCursorHeader() throws Exception {
+        BookingInfoDto bookingInfoDto = new BookingInfoDto();
+        List<BookingInfoDto> bookingInfoDtoList = List.of(bookingInfoDto);
+
+        when(bookingService.getBookingPageByUserId(anyLong(), anyString(), anyString(), anyInt()))
+            .thenReturn(new BookingPageDto(bookingInfoDtoList, "next"));
+
+        String result = mockMvc.perform(get("/bookings")
+                .header("X-Sharer-User-Id", 1)
+                .param("state", "all")
+                .param("cursor", "")
+                .param("size", "1"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(BookingController.NEXT_CURSOR_HEADER, "next"))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(bookingInfoDtoList), result);
+    }
+
     @Test
     void createBooking_whenBookingIsValid_thenStatusOk() throws Exception {
         BookingInfoDto bookingInfoDto = new BookingInfoDto();
@@ -126,6 +182,47 @@ class BookingControllerIT {
         assertEquals(objectMapper.writeValueAsString(bookingInfoDto), result);
     }
 
+    @Test
+    void createBookings_whenBatchGiven_thenReturnPerRowResults() throws Exception {
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setItemId(1L);
+        bookingDto.setStart(LocalDateTime.of(2030, 1, 1, 10, 0));
+        bookingDto.setEnd(LocalDateTime.of(2030, 1, 2, 10, 0));
+        List<BookingBatchResultDto> results = List.of(
+            BookingBatchResultDto.created(0, new BookingInfoDto()),
+            BookingBatchResultDto.failed(1, "Товар с id: 1 уже забронирован на эти даты"));
+
+        when(bookingService.createBookings(1L, List.of(bookingDto, bookingDto))).thenReturn(results);
+
+        String result = mockMvc.perform(post("/bookings/batch")
+                .contentType("application/json")
+                .content(objectMapper.writeValueAsString(List.of(bookingDto, bookingDto)))
+                .header("X-Sharer-User-Id", 1))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString(StandardCharsets.UTF_8);
+
+        assertEquals(objectMapper.writeValueAsString(results), result);
+    }
+
+    @Test
+    void getBookingsByIds_whenIdsGiven_thenStatusOk() throws Exception {
+        List<BookingInfoDto> bookings = List.of(new BookingInfoDto());
+
+        when(bookingService.getBookingsByIds(List.of(3L, 1L), 1L)).thenReturn(bookings);
+
+        String result = mockMvc.perform(get("/bookings/batch")
+                .param("ids", "3,1")
+                .header("X-Sharer-User-Id", 1))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(bookings), result);
+    }
+
     @Test
     void approvedBooking_whenBookingCreated_thenStatusOk() throws Exception {
         long bookingId = 1L;
@@ -146,4 +243,39 @@ class BookingControllerIT {
 
         assertEquals(objectMapper.writeValueAsString(bookingInfoDto), result);
     }
-}
\ No newline at end of file
+
+    @Test
+    void exportBookingsByUserId_whenFormatCsv_thenStreamServiceOutputAsCsv() throws Exception {
+        when(bookingService.exportBookingsByUserId(1L, BookingExportFormat.CSV))
+            .thenReturn(out -> out.write("id\n1\n".getBytes(StandardCharsets.UTF_8)));
+
+        MvcResult result = mockMvc.perform(get("/bookings/export")
+                .header("X-Sharer-User-Id", 1)
+                .param("format", "csv"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Type", "text/csv;charset=UTF-8"))
+            .andExpect(content().string("id\n1\n"));
+    }
+
+    @Test
+    void exportBookingsByUserId_whenUserNotFound_thenStatusNotFound() throws Exception {
+        when(bookingService.exportBookingsByUserId(1L, BookingExportFormat.NDJSON))
+            .thenThrow(new NotFoundException("Не найден пользователь с id: 1"));
+
+        mockMvc.perform(get("/bookings/export")
+                .header("X-Sharer-User-Id", 1))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void exportBookingsByUserId_whenFormatUnknown_thenStatusBadRequest() throws Exception {
+        mockMvc.perform(get("/bookings/export")
+                .header("X-Sharer-User-Id", 1)
+                .param("format", "xml"))
+            .andExpect(status().isBadRequest());
+    }
+}
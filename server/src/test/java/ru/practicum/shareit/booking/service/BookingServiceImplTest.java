@@ -3,30 +3,60 @@ package ru.practicum.shareit.booking.service;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingExportFormat;
 import ru.practicum.shareit.booking.dto.BookingInfoDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.dto.OwnerBookingStatsDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingPhaseScheduler;
+import ru.practicum.shareit.booking.storage.BookingQuery;
 import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.booking.storage.ItemBookingStatsView;
+import ru.practicum.shareit.booking.storage.ItemAvailabilityIndex;
+import ru.practicum.shareit.config.ParallelReads;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.model.Item;
@@ -44,6 +74,23 @@ class BookingServiceImplTest {
     private UserRepository userRepository;
     @Mock
     private ItemRepository itemRepository;
+    @Mock
+    private ItemAvailabilityIndex availabilityIndex;
+    @Mock
+    private BookingPhaseScheduler phaseScheduler;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    @Spy
+    private OwnerBookingStatsCache ownerStatsCache = new OwnerBookingStatsCache(null, false);
+    @Spy
+    private ParallelReads parallelReads = new ParallelReads(Runnable::run, TransactionOperations.withoutTransaction(),
+        TransactionOperations.withoutTransaction(), new SimpleMeterRegistry(), Duration.ofSeconds(5));
 
     @Test
     void getBookingById_whenBookingCreated_thenReturnBooking() {
@@ -61,7 +108,7 @@ class BookingServiceImplTest {
 
         BookingInfoDto bookingInfoDto = BookingMapper.toBookingInfoDto(booking);
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.existsById(userId)).thenReturn(true);
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
 
         BookingInfoDto actualBookingInfoDto = bookingService.getBookingById(userId, bookingId);
@@ -76,7 +123,7 @@ class BookingServiceImplTest {
         User user = new User();
         user.setId(userId);
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.existsById(userId)).thenReturn(true);
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.empty());
 
         NotFoundException ex = assertThrows(NotFoundException.class,
@@ -100,7 +147,7 @@ class BookingServiceImplTest {
         booking.setItem(item);
         BookingInfoDto bookingInfoDto = BookingMapper.toBookingInfoDto(booking);
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(booker));
+        when(userRepository.existsById(userId)).thenReturn(true);
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
 
         BookingInfoDto actualBookingInfoDto = bookingService.getBookingById(userId, bookingId);
@@ -124,7 +171,7 @@ class BookingServiceImplTest {
         booking.setBooker(booker);
         booking.setItem(item);
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(booker));
+        when(userRepository.existsById(userId)).thenReturn(true);
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
 
         NotFoundException ex = assertThrows(NotFoundException.class,
@@ -141,9 +188,6 @@ class BookingServiceImplTest {
         int from = 2;
         int size = 5;
 
-        Sort sort = Sort.by(Sort.Direction.DESC, "start");
-        PageRequest pageRequest = PageRequest.of(0, size, sort);
-
         Booking booking = new Booking();
         User booker = new User();
         booking.setBooker(booker);
@@ -153,14 +197,13 @@ class BookingServiceImplTest {
         booking.setItem(item);
 
         List<Booking> bookings = List.of(booking);
-        Page<Booking> bookingPage = new PageImpl<>(bookings, pageRequest, bookings.size());
         List<BookingInfoDto> bookingInfoDtoList = bookings.stream()
             .map(BookingMapper::toBookingInfoDto)
             .collect(Collectors.toList());
 
 
-        when(userRepository.findById(bookerId)).thenReturn(Optional.of(booker));
-        when(bookingRepository.findByBooker_Id(bookerId, pageRequest)).thenReturn(bookingPage);
+        when(userRepository.existsById(bookerId)).thenReturn(true);
+        when(bookingRepository.findSlice(any(BookingQuery.class))).thenReturn(bookings);
 
         List<BookingInfoDto> resultBookingInfoDtoList = bookingService
             .getBookingByUserId(bookerId, stateParam, from, size);
@@ -176,9 +219,6 @@ class BookingServiceImplTest {
         int from = 2;
         int size = 5;
 
-        Sort sort = Sort.by(Sort.Direction.DESC, "start");
-        PageRequest pageRequest = PageRequest.of(0, size, sort);
-
         Booking booking = new Booking();
         User booker = new User();
         booking.setBooker(booker);
@@ -188,16 +228,13 @@ class BookingServiceImplTest {
         booking.setItem(item);
 
         List<Booking> bookings = List.of(booking);
-        Page<Booking> bookingPage = new PageImpl<>(bookings, pageRequest, bookings.size());
         List<BookingInfoDto> bookingInfoDtoList = bookings.stream()
             .map(BookingMapper::toBookingInfoDto)
             .collect(Collectors.toList());
 
 
-        when(userRepository.findById(bookerId)).thenReturn(Optional.of(booker));
-        when(bookingRepository.findByBooker_IdAndStartLessThanEqualAndEndAfter(anyLong(), any(LocalDateTime.class),
-            any(LocalDateTime.class), any(PageRequest.class)))
-            .thenReturn(bookingPage);
+        when(userRepository.existsById(bookerId)).thenReturn(true);
+        when(bookingRepository.findSlice(any(BookingQuery.class))).thenReturn(bookings);
 
         List<BookingInfoDto> resultBookingInfoDtoList = bookingService
             .getBookingByUserId(bookerId, stateParam, from, size);
@@ -213,9 +250,6 @@ class BookingServiceImplTest {
         int from = 2;
         int size = 5;
 
-        Sort sort = Sort.by(Sort.Direction.DESC, "start");
-        PageRequest pageRequest = PageRequest.of(0, size, sort);
-
         Booking booking = new Booking();
         User booker = new User();
         booking.setBooker(booker);
@@ -225,15 +259,13 @@ class BookingServiceImplTest {
         booking.setItem(item);
 
         List<Booking> bookings = List.of(booking);
-        Page<Booking> bookingPage = new PageImpl<>(bookings, pageRequest, bookings.size());
         List<BookingInfoDto> bookingInfoDtoList = bookings.stream()
             .map(BookingMapper::toBookingInfoDto)
             .collect(Collectors.toList());
 
 
-        when(userRepository.findById(bookerId)).thenReturn(Optional.of(booker));
-        when(bookingRepository.findByBooker_IdAndEndBefore(anyLong(), any(LocalDateTime.class), any(PageRequest.class)))
-            .thenReturn(bookingPage);
+        when(userRepository.existsById(bookerId)).thenReturn(true);
+        when(bookingRepository.findSlice(any(BookingQuery.class))).thenReturn(bookings);
 
         List<BookingInfoDto> resultBookingInfoDtoList = bookingService
             .getBookingByUserId(bookerId, stateParam, from, size);
@@ -249,9 +281,6 @@ class BookingServiceImplTest {
         int from = 2;
         int size = 5;
 
-        Sort sort = Sort.by(Sort.Direction.DESC, "start");
-        PageRequest pageRequest = PageRequest.of(0, size, sort);
-
         Booking booking = new Booking();
         User booker = new User();
         booking.setBooker(booker);
@@ -261,16 +290,13 @@ class BookingServiceImplTest {
         booking.setItem(item);
 
         List<Booking> bookings = List.of(booking);
-        Page<Booking> bookingPage = new PageImpl<>(bookings, pageRequest, bookings.size());
         List<BookingInfoDto> bookingInfoDtoList = bookings.stream()
             .map(BookingMapper::toBookingInfoDto)
             .collect(Collectors.toList());
 
 
-        when(userRepository.findById(bookerId)).thenReturn(Optional.of(booker));
-        when(bookingRepository
-            .findByBooker_IdAndStartAfter(anyLong(), any(LocalDateTime.class), any(PageRequest.class)))
-            .thenReturn(bookingPage);
+        when(userRepository.existsById(bookerId)).thenReturn(true);
+        when(bookingRepository.findSlice(any(BookingQuery.class))).thenReturn(bookings);
 
         List<BookingInfoDto> resultBookingInfoDtoList = bookingService
             .getBookingByUserId(bookerId, stateParam, from, size);
@@ -286,9 +312,6 @@ class BookingServiceImplTest {
         int from = 2;
         int size = 5;
 
-        Sort sort = Sort.by(Sort.Direction.DESC, "start");
-        PageRequest pageRequest = PageRequest.of(0, size, sort);
-
         Booking booking = new Booking();
         User booker = new User();
         booking.setBooker(booker);
@@ -298,15 +321,13 @@ class BookingServiceImplTest {
         booking.setItem(item);
 
         List<Booking> bookings = List.of(booking);
-        Page<Booking> bookingPage = new PageImpl<>(bookings, pageRequest, bookings.size());
         List<BookingInfoDto> bookingInfoDtoList = bookings.stream()
             .map(BookingMapper::toBookingInfoDto)
             .collect(Collectors.toList());
 
 
-        when(userRepository.findById(bookerId)).thenReturn(Optional.of(booker));
-        when(bookingRepository.findByBooker_IdAndStatusEquals(anyLong(), any(BookingStatus.class), any(PageRequest.class)))
-            .thenReturn(bookingPage);
+        when(userRepository.existsById(bookerId)).thenReturn(true);
+        when(bookingRepository.findSlice(any(BookingQuery.class))).thenReturn(bookings);
 
         List<BookingInfoDto> resultBookingInfoDtoList = bookingService
             .getBookingByUserId(bookerId, stateParam, from, size);
@@ -322,9 +343,6 @@ class BookingServiceImplTest {
         int from = 2;
         int size = 5;
 
-        Sort sort = Sort.by(Sort.Direction.DESC, "start");
-        PageRequest pageRequest = PageRequest.of(0, size, sort);
-
         Booking booking = new Booking();
         User booker = new User();
         booking.setBooker(booker);
@@ -334,15 +352,13 @@ class BookingServiceImplTest {
         booking.setItem(item);
 
         List<Booking> bookings = List.of(booking);
-        Page<Booking> bookingPage = new PageImpl<>(bookings, pageRequest, bookings.size());
         List<BookingInfoDto> bookingInfoDtoList = bookings.stream()
             .map(BookingMapper::toBookingInfoDto)
             .collect(Collectors.toList());
 
 
-        when(userRepository.findById(bookerId)).thenReturn(Optional.of(booker));
-        when(bookingRepository.findByBooker_IdAndStatusEquals(anyLong(), any(BookingStatus.class), any(PageRequest.class)))
-            .thenReturn(bookingPage);
+        when(userRepository.existsById(bookerId)).thenReturn(true);
+        when(bookingRepository.findSlice(any(BookingQuery.class))).thenReturn(bookings);
 
         List<BookingInfoDto> resultBookingInfoDtoList = bookingService
             .getBookingByUserId(bookerId, stateParam, from, size);
@@ -359,7 +375,7 @@ class BookingServiceImplTest {
 
         User booker = new User();
 
-        when(userRepository.findById(bookerId)).thenReturn(Optional.of(booker));
+        when(userRepository.existsById(bookerId)).thenReturn(true);
 
         IllegalStateException ex = assertThrows(IllegalStateException.class,
             () -> bookingService.getBookingByUserId(bookerId, stateParam, from, size));
@@ -367,6 +383,20 @@ class BookingServiceImplTest {
         assertEquals("Unknown state: " + stateParam, ex.getMessage());
     }
 
+    @Test
+    void getBookingByUserId_whenUserNotFound_thenThrowExceptionWithoutLoadingUser() {
+        long bookerId = 1L;
+
+        when(userRepository.existsById(bookerId)).thenReturn(false);
+
+        NotFoundException ex = assertThrows(NotFoundException.class,
+            () -> bookingService.getBookingByUserId(bookerId, "ALL", 0, 10));
+
+        assertEquals("Не найден пользователь с id: " + bookerId, ex.getMessage());
+        verify(userRepository, never()).findById(anyLong());
+        verify(bookingRepository, never()).findSlice(any(BookingQuery.class));
+    }
+
     @Test
     void getBookingByOwnerId_whenStateAll_thenReturnBookingList() {
         long ownerId = 1L;
@@ -375,9 +405,6 @@ class BookingServiceImplTest {
         int from = 2;
         int size = 5;
 
-        Sort sort = Sort.by(Sort.Direction.DESC, "start");
-        PageRequest pageRequest = PageRequest.of(0, size, sort);
-
         Booking booking = new Booking();
         User booker = new User();
         booking.setBooker(booker);
@@ -387,15 +414,13 @@ class BookingServiceImplTest {
         booking.setItem(item);
 
         List<Booking> bookings = List.of(booking);
-        Page<Booking> bookingPage = new PageImpl<>(bookings, pageRequest, bookings.size());
         List<BookingInfoDto> bookingInfoDtoList = bookings.stream()
             .map(BookingMapper::toBookingInfoDto)
             .collect(Collectors.toList());
 
 
-        when(userRepository.findById(ownerId)).thenReturn(Optional.of(owner));
-        when(bookingRepository.findByItem_Owner_Id(ownerId, pageRequest))
-            .thenReturn(bookingPage);
+        when(userRepository.existsById(ownerId)).thenReturn(true);
+        when(bookingRepository.findSlice(any(BookingQuery.class))).thenReturn(bookings);
 
         List<BookingInfoDto> resultBookingInfoDtoList = bookingService
             .getBookingByOwnerId(ownerId, stateParam, from, size);
@@ -411,9 +436,6 @@ class BookingServiceImplTest {
         int from = 2;
         int size = 5;
 
-        Sort sort = Sort.by(Sort.Direction.DESC, "start");
-        PageRequest pageRequest = PageRequest.of(0, size, sort);
-
         Booking booking = new Booking();
         User booker = new User();
         booking.setBooker(booker);
@@ -423,15 +445,13 @@ class BookingServiceImplTest {
         booking.setItem(item);
 
         List<Booking> bookings = List.of(booking);
-        Page<Booking> bookingPage = new PageImpl<>(bookings, pageRequest, bookings.size());
         List<BookingInfoDto> bookingInfoDtoList = bookings.stream()
             .map(BookingMapper::toBookingInfoDto)
             .collect(Collectors.toList());
 
 
-        when(userRepository.findById(ownerId)).thenReturn(Optional.of(owner));
-        when(bookingRepository.findByItem_Owner_IdAndStartLessThanEqualAndEndAfter(anyLong(), any(LocalDateTime.class),
-            any(LocalDateTime.class), any(PageRequest.class))).thenReturn(bookingPage);
+        when(userRepository.existsById(ownerId)).thenReturn(true);
+        when(bookingRepository.findSlice(any(BookingQuery.class))).thenReturn(bookings);
 
         List<BookingInfoDto> resultBookingInfoDtoList = bookingService
             .getBookingByOwnerId(ownerId, stateParam, from, size);
@@ -447,9 +467,6 @@ class BookingServiceImplTest {
         int from = 2;
         int size = 5;
 
-        Sort sort = Sort.by(Sort.Direction.DESC, "start");
-        PageRequest pageRequest = PageRequest.of(0, size, sort);
-
         Booking booking = new Booking();
         User booker = new User();
         booking.setBooker(booker);
@@ -459,15 +476,13 @@ class BookingServiceImplTest {
         booking.setItem(item);
 
         List<Booking> bookings = List.of(booking);
-        Page<Booking> bookingPage = new PageImpl<>(bookings, pageRequest, bookings.size());
         List<BookingInfoDto> bookingInfoDtoList = bookings.stream()
             .map(BookingMapper::toBookingInfoDto)
             .collect(Collectors.toList());
 
 
-        when(userRepository.findById(ownerId)).thenReturn(Optional.of(owner));
-        when(bookingRepository.findByItem_Owner_IdAndEndBefore(anyLong(), any(LocalDateTime.class),
-            any(PageRequest.class))).thenReturn(bookingPage);
+        when(userRepository.existsById(ownerId)).thenReturn(true);
+        when(bookingRepository.findSlice(any(BookingQuery.class))).thenReturn(bookings);
 
         List<BookingInfoDto> resultBookingInfoDtoList = bookingService
             .getBookingByOwnerId(ownerId, stateParam, from, size);
@@ -483,9 +498,6 @@ class BookingServiceImplTest {
         int from = 2;
         int size = 5;
 
-        Sort sort = Sort.by(Sort.Direction.DESC, "start");
-        PageRequest pageRequest = PageRequest.of(0, size, sort);
-
         Booking booking = new Booking();
         User booker = new User();
         booking.setBooker(booker);
@@ -495,15 +507,13 @@ class BookingServiceImplTest {
         booking.setItem(item);
 
         List<Booking> bookings = List.of(booking);
-        Page<Booking> bookingPage = new PageImpl<>(bookings, pageRequest, bookings.size());
         List<BookingInfoDto> bookingInfoDtoList = bookings.stream()
             .map(BookingMapper::toBookingInfoDto)
             .collect(Collectors.toList());
 
 
-        when(userRepository.findById(ownerId)).thenReturn(Optional.of(owner));
-        when(bookingRepository.findByItem_Owner_IdAndStartAfter(anyLong(), any(LocalDateTime.class),
-            any(PageRequest.class))).thenReturn(bookingPage);
+        when(userRepository.existsById(ownerId)).thenReturn(true);
+        when(bookingRepository.findSlice(any(BookingQuery.class))).thenReturn(bookings);
 
         List<BookingInfoDto> resultBookingInfoDtoList = bookingService
             .getBookingByOwnerId(ownerId, stateParam, from, size);
@@ -519,9 +529,6 @@ class BookingServiceImplTest {
         int from = 2;
         int size = 5;
 
-        Sort sort = Sort.by(Sort.Direction.DESC, "start");
-        PageRequest pageRequest = PageRequest.of(0, size, sort);
-
         Booking booking = new Booking();
         User booker = new User();
         booking.setBooker(booker);
@@ -531,15 +538,13 @@ class BookingServiceImplTest {
         booking.setItem(item);
 
         List<Booking> bookings = List.of(booking);
-        Page<Booking> bookingPage = new PageImpl<>(bookings, pageRequest, bookings.size());
         List<BookingInfoDto> bookingInfoDtoList = bookings.stream()
             .map(BookingMapper::toBookingInfoDto)
             .collect(Collectors.toList());
 
 
-        when(userRepository.findById(ownerId)).thenReturn(Optional.of(owner));
-        when(bookingRepository.findByItem_Owner_IdAndStatusEquals(anyLong(), any(BookingStatus.class),
-            any(PageRequest.class))).thenReturn(bookingPage);
+        when(userRepository.existsById(ownerId)).thenReturn(true);
+        when(bookingRepository.findSlice(any(BookingQuery.class))).thenReturn(bookings);
 
         List<BookingInfoDto> resultBookingInfoDtoList = bookingService
             .getBookingByOwnerId(ownerId, stateParam, from, size);
@@ -555,9 +560,6 @@ class BookingServiceImplTest {
         int from = 2;
         int size = 5;
 
-        Sort sort = Sort.by(Sort.Direction.DESC, "start");
-        PageRequest pageRequest = PageRequest.of(0, size, sort);
-
         Booking booking = new Booking();
         User booker = new User();
         booking.setBooker(booker);
@@ -567,15 +569,13 @@ class BookingServiceImplTest {
         booking.setItem(item);
 
         List<Booking> bookings = List.of(booking);
-        Page<Booking> bookingPage = new PageImpl<>(bookings, pageRequest, bookings.size());
         List<BookingInfoDto> bookingInfoDtoList = bookings.stream()
             .map(BookingMapper::toBookingInfoDto)
             .collect(Collectors.toList());
 
 
-        when(userRepository.findById(ownerId)).thenReturn(Optional.of(owner));
-        when(bookingRepository.findByItem_Owner_IdAndStatusEquals(anyLong(), any(BookingStatus.class),
-            any(PageRequest.class))).thenReturn(bookingPage);
+        when(userRepository.existsById(ownerId)).thenReturn(true);
+        when(bookingRepository.findSlice(any(BookingQuery.class))).thenReturn(bookings);
 
         List<BookingInfoDto> resultBookingInfoDtoList = bookingService
             .getBookingByOwnerId(ownerId, stateParam, from, size);
@@ -592,7 +592,7 @@ class BookingServiceImplTest {
 
         User owner = new User();
 
-        when(userRepository.findById(ownerId)).thenReturn(Optional.of(owner));
+        when(userRepository.existsById(ownerId)).thenReturn(true);
 
         IllegalStateException ex = assertThrows(IllegalStateException.class,
             () -> bookingService.getBookingByOwnerId(ownerId, stateParam, from, size));
@@ -600,6 +600,47 @@ class BookingServiceImplTest {
         assertEquals("Unknown state: " + stateParam, ex.getMessage());
     }
 
+    @Test
+    void getBookingPageByUserId_whenMoreBookingsThanSize_thenReturnNextCursor() {
+        long bookerId = 1L;
+
+        User booker = new User();
+        booker.setId(bookerId);
+
+        Booking first = new Booking();
+        first.setId(2L);
+        first.setStart(LocalDateTime.of(2030, 1, 2, 10, 0));
+        first.setBooker(booker);
+        first.setItem(new Item());
+
+        Booking second = new Booking();
+        second.setId(1L);
+        second.setStart(LocalDateTime.of(2030, 1, 1, 10, 0));
+        second.setBooker(booker);
+        second.setItem(new Item());
+
+        when(userRepository.existsById(bookerId)).thenReturn(true);
+        when(bookingRepository.findSlice(any(BookingQuery.class))).thenReturn(List.of(first, second));
+
+        BookingPageDto bookingPage = bookingService.getBookingPageByUserId(bookerId, "ALL", "", 1);
+
+        assertEquals(1, bookingPage.getBookings().size());
+        assertEquals(first.getId(), bookingPage.getBookings().get(0).getId());
+        assertEquals(BookingCursor.of(first), BookingCursor.decode(bookingPage.getNextCursor()));
+    }
+
+    @Test
+    void getBookingPageByOwnerId_whenCursorInvalid_thenThrowException() {
+        long ownerId = 1L;
+
+        when(userRepository.existsById(ownerId)).thenReturn(true);
+
+        ValidationException ex = assertThrows(ValidationException.class,
+            () -> bookingService.getBookingPageByOwnerId(ownerId, "ALL", "broken", 1));
+
+        assertEquals("Некорректный курсор: broken", ex.getMessage());
+    }
+
     @Test
     void createBooking_whenBookingValid_thenReturnBooking() {
         long userId = 1L;
@@ -630,11 +671,75 @@ class BookingServiceImplTest {
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(availabilityIndex.reserve(item.getId(), bookingDto.getStart(), bookingDto.getEnd())).thenReturn(true);
         when(bookingRepository.save(booking)).thenReturn(booking);
 
         BookingInfoDto actualBookingInfoDto = bookingService.createBooking(userId, bookingDto);
 
         assertEquals(bookingInfoDto.getId(), actualBookingInfoDto.getId());
+        verify(availabilityIndex).add(booking);
+        verify(phaseScheduler).register(booking);
+    }
+
+    @Test
+    void createBooking_whenItemAlreadyBooked_thenReturnException() {
+        long bookerId = 1L;
+
+        User booker = new User();
+        booker.setId(bookerId);
+
+        Item item = new Item();
+        item.setId(1L);
+        item.setAvailable(true);
+        User owner = new User();
+        owner.setId(2L);
+        item.setOwner(owner);
+
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setItemId(item.getId());
+        bookingDto.setStart(LocalDateTime.now().plusSeconds(1));
+        bookingDto.setEnd(LocalDateTime.now().plusSeconds(5));
+
+        when(userRepository.findById(bookerId)).thenReturn(Optional.of(booker));
+        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(availabilityIndex.reserve(item.getId(), bookingDto.getStart(), bookingDto.getEnd())).thenReturn(false);
+
+        ValidationException ex = assertThrows(ValidationException.class,
+            () -> bookingService.createBooking(bookerId, bookingDto));
+
+        assertEquals("Товар с id: " + item.getId() + " уже забронирован на эти даты", ex.getMessage());
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    void createBooking_whenSaveRejectedByDatabase_thenReleaseReservation() {
+        long bookerId = 1L;
+
+        User booker = new User();
+        booker.setId(bookerId);
+
+        Item item = new Item();
+        item.setId(1L);
+        item.setAvailable(true);
+        User owner = new User();
+        owner.setId(2L);
+        item.setOwner(owner);
+
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setItemId(item.getId());
+        bookingDto.setStart(LocalDateTime.now().plusSeconds(1));
+        bookingDto.setEnd(LocalDateTime.now().plusSeconds(5));
+
+        when(userRepository.findById(bookerId)).thenReturn(Optional.of(booker));
+        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(availabilityIndex.reserve(item.getId(), bookingDto.getStart(), bookingDto.getEnd())).thenReturn(true);
+        when(bookingRepository.save(any(Booking.class)))
+            .thenThrow(new DataIntegrityViolationException("bookings_no_overlap"));
+
+        assertThrows(ValidationException.class, () -> bookingService.createBooking(bookerId, bookingDto));
+
+        verify(availabilityIndex).release(item.getId(), bookingDto.getStart());
+        verify(availabilityIndex, never()).add(any(Booking.class));
     }
 
     @Test
@@ -714,7 +819,7 @@ class BookingServiceImplTest {
         booking.setStatus(BookingStatus.WAITING);
 
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
-        when(userRepository.findById(ownerId)).thenReturn(Optional.of(owner));
+        when(userRepository.existsById(ownerId)).thenReturn(true);
         when(bookingRepository.save(booking)).thenReturn(booking);
 
         BookingInfoDto actualBookingInfoDto = bookingService.approveBooking(ownerId, bookingId, true);
@@ -739,7 +844,7 @@ class BookingServiceImplTest {
         booking.setStatus(BookingStatus.APPROVED);
 
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
-        when(userRepository.findById(ownerId)).thenReturn(Optional.of(owner));
+        when(userRepository.existsById(ownerId)).thenReturn(true);
 
         ValidationException ex = assertThrows(ValidationException.class,
             () -> bookingService.approveBooking(ownerId, bookingId, true));
@@ -762,11 +867,13 @@ class BookingServiceImplTest {
         Booking booking = new Booking();
 
         booking.setItem(item);
-        booking.setBooker(new User());
+        User booker = new User();
+        booker.setId(userId);
+        booking.setBooker(booker);
         booking.setStatus(BookingStatus.from(status));
 
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(new User()));
+        when(userRepository.existsById(userId)).thenReturn(true);
 
         NotFoundException ex = assertThrows(NotFoundException.class,
             () -> bookingService.approveBooking(userId, bookingId, true));
@@ -789,4 +896,326 @@ class BookingServiceImplTest {
         assertEquals(BookingStatus.CANCELED, BookingStatus.from(canceled));
         assertEquals(BookingStatus.WAITING, BookingStatus.from(unknown));
     }
-}
\ No newline at end of file
+
+    @Test
+    void createBookings_whenSomeRowsInvalid_thenCreateValidRowsAndReportFailures() {
+        long userId = 1L;
+        User booker = new User();
+        booker.setId(userId);
+        User owner = new User();
+        owner.setId(2L);
+
+        Item item = new Item();
+        item.setId(1L);
+        item.setAvailable(true);
+        item.setOwner(owner);
+        Item ownItem = new Item();
+        ownItem.setId(2L);
+        ownItem.setAvailable(true);
+        ownItem.setOwner(booker);
+
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        Booking existing = new Booking();
+        existing.setItem(item);
+        existing.setStart(start.plusDays(10));
+        existing.setEnd(start.plusDays(12));
+
+        List<BookingDto> bookingDtos = List.of(
+            bookingDto(1L, start, start.plusDays(1)),
+            bookingDto(1L, start.plusHours(12), start.plusDays(2)),
+            bookingDto(2L, start, start.plusDays(1)),
+            bookingDto(99L, start, start.plusDays(1)),
+            bookingDto(1L, start.plusDays(11), start.plusDays(13)),
+            bookingDto(1L, start.plusDays(3), start.plusDays(4)));
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(booker));
+        when(itemRepository.findAllById(any())).thenReturn(List.of(item, ownItem));
+        when(bookingRepository.findByItem_IdInAndStatusInAndStartBeforeAndEndAfter(any(), any(), any(), any()))
+            .thenReturn(List.of(existing));
+        when(availabilityIndex.reserveChecked(anyLong(), any(), any())).thenReturn(true);
+        when(bookingRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<BookingBatchResultDto> results = bookingService.createBookings(userId, bookingDtos);
+
+        assertEquals(6, results.size());
+        assertNotNull(results.get(0).getBooking());
+        assertEquals("Товар с id: 1 уже забронирован на эти даты", results.get(1).getError());
+        assertEquals("Владелец не может быть арендатором", results.get(2).getError());
+        assertEquals("Не найден товар с id: 99", results.get(3).getError());
+        assertEquals("Товар с id: 1 уже забронирован на эти даты", results.get(4).getError());
+        assertEquals(start.plusDays(3), results.get(5).getBooking().getStart());
+        assertEquals(BookingStatus.WAITING, results.get(5).getBooking().getStatus());
+        verify(userRepository, never()).existsById(anyLong());
+    }
+
+    @Test
+    void createBookings_whenBatchRejectedByDatabase_thenSaveRowsOneByOneAndFailOnlyConflicting() {
+        long userId = 1L;
+        User booker = new User();
+        booker.setId(userId);
+        User owner = new User();
+        owner.setId(2L);
+
+        Item item = new Item();
+        item.setId(1L);
+        item.setAvailable(true);
+        item.setOwner(owner);
+        Item otherItem = new Item();
+        otherItem.setId(3L);
+        otherItem.setAvailable(true);
+        otherItem.setOwner(owner);
+
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        List<BookingDto> bookingDtos = List.of(
+            bookingDto(1L, start, start.plusDays(1)),
+            bookingDto(3L, start, start.plusDays(1)));
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(booker));
+        when(itemRepository.findAllById(any())).thenReturn(List.of(item, otherItem));
+        when(bookingRepository.findByItem_IdInAndStatusInAndStartBeforeAndEndAfter(any(), any(), any(), any()))
+            .thenReturn(List.of());
+        when(availabilityIndex.reserveChecked(anyLong(), any(), any())).thenReturn(true);
+        when(bookingRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<Booking> bookings = invocation.getArgument(0);
+            bookings.forEach(booking -> booking.setId(100L));
+            throw new DataIntegrityViolationException("bookings_no_overlap");
+        });
+        when(bookingRepository.save(any())).thenAnswer(invocation -> {
+            Booking booking = invocation.getArgument(0);
+            assertEquals(0L, booking.getId());
+            if (booking.getItem().getId() == 3L) {
+                throw new DataIntegrityViolationException("bookings_no_overlap");
+            }
+            booking.setId(200L);
+            return booking;
+        });
+
+        List<BookingBatchResultDto> results = bookingService.createBookings(userId, bookingDtos);
+
+        assertEquals(2, results.size());
+        assertEquals(200L, results.get(0).getBooking().getId());
+        assertNull(results.get(0).getError());
+        assertNull(results.get(1).getBooking());
+        assertEquals("Товар с id: 3 уже забронирован на эти даты", results.get(1).getError());
+        verify(availabilityIndex).add(argThat(booking -> booking.getId() == 200L));
+        verify(availabilityIndex, never()).add(argThat(booking -> booking.getItem().getId() == 3L));
+        verify(availabilityIndex).release(3L, start);
+        verify(phaseScheduler, never()).register(argThat(booking -> booking.getItem().getId() == 3L));
+    }
+
+    @Test
+    void createBookings_whenSingleBookingReservedButNotSaved_thenRejectOverlappingRow() throws Exception {
+        long userId = 1L;
+        User booker = new User();
+        booker.setId(userId);
+        User owner = new User();
+        owner.setId(2L);
+        Item item = new Item();
+        item.setId(1L);
+        item.setAvailable(true);
+        item.setOwner(owner);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingDto bookingDto = bookingDto(1L, start, start.plusDays(1));
+
+        ItemAvailabilityIndex realIndex = new ItemAvailabilityIndex(bookingRepository,
+            ItemAvailabilityIndex.Mode.LOCAL);
+        BookingServiceImpl service = new BookingServiceImpl(bookingRepository, itemRepository, userRepository,
+            realIndex, phaseScheduler, entityManager, transactionManager, objectMapper, ownerStatsCache, parallelReads);
+
+        CountDownLatch saving = new CountDownLatch(1);
+        CountDownLatch batchDone = new CountDownLatch(1);
+        when(userRepository.findById(userId)).thenReturn(Optional.of(booker));
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(itemRepository.findAllById(any())).thenReturn(List.of(item));
+        // Одиночная аренда ещё не сохранена: база её не видит
+        when(bookingRepository.findByItem_IdInAndStatusInAndStartBeforeAndEndAfter(any(), any(), any(), any()))
+            .thenReturn(List.of());
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> {
+            saving.countDown();
+            assertTrue(batchDone.await(5, TimeUnit.SECONDS));
+            Booking booking = invocation.getArgument(0);
+            booking.setId(10L);
+            return booking;
+        });
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<BookingInfoDto> single = executor.submit(() -> service.createBooking(userId, bookingDto));
+            assertTrue(saving.await(5, TimeUnit.SECONDS));
+
+            List<BookingBatchResultDto> results = service.createBookings(userId, List.of(bookingDto));
+            batchDone.countDown();
+
+            assertEquals("Товар с id: 1 уже забронирован на эти даты", results.get(0).getError());
+            assertEquals(10L, single.get(5, TimeUnit.SECONDS).getId());
+            verify(bookingRepository, never()).saveAll(any());
+            assertFalse(realIndex.isAvailable(1L, start, start.plusDays(1)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void createBookings_whenBatchTooLarge_thenThrowException() {
+        List<BookingDto> bookingDtos = Collections.nCopies(BookingServiceImpl.MAX_BATCH_SIZE + 1,
+            new BookingDto());
+
+        ValidationException ex = assertThrows(ValidationException.class,
+            () -> bookingService.createBookings(1L, bookingDtos));
+
+        assertEquals("Пакет не должен содержать больше 100 аренд", ex.getMessage());
+        verify(bookingRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void getBookingsByIds_whenSomeBookingsForeign_thenReturnOnlyAccessibleInRequestedOrder() {
+        long userId = 1L;
+        User user = new User();
+        user.setId(userId);
+        User stranger = new User();
+        stranger.setId(3L);
+
+        Item ownItem = new Item();
+        ownItem.setOwner(user);
+        Item strangerItem = new Item();
+        strangerItem.setOwner(stranger);
+
+        Booking asBooker = booking(1L, user, strangerItem);
+        Booking asOwner = booking(2L, stranger, ownItem);
+        Booking foreign = booking(3L, stranger, strangerItem);
+
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(bookingRepository.findByIdIn(List.of(2L, 3L, 1L, 4L))).thenReturn(List.of(asBooker, asOwner, foreign));
+
+        List<BookingInfoDto> bookings = bookingService.getBookingsByIds(List.of(2L, 3L, 1L, 4L), userId);
+
+        assertEquals(List.of(2L, 1L), bookings.stream().map(BookingInfoDto::getId).collect(Collectors.toList()));
+    }
+
+    private static BookingDto bookingDto(long itemId, LocalDateTime start, LocalDateTime end) {
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setItemId(itemId);
+        bookingDto.setStart(start);
+        bookingDto.setEnd(end);
+        return bookingDto;
+    }
+
+    private static Booking booking(long id, User booker, Item item) {
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setBooker(booker);
+        booking.setItem(item);
+        return booking;
+    }
+
+    @Test
+    void exportBookingsByUserId_whenFormatNdjson_thenWriteOneJsonLinePerBooking() throws Exception {
+        Booking booking = exportedBooking("Дрель");
+        when(userRepository.existsById(2L)).thenReturn(true);
+        when(bookingRepository.streamByBooker_Id(2L)).thenReturn(Stream.of(booking));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        bookingService.exportBookingsByUserId(2L, BookingExportFormat.NDJSON).writeTo(out);
+
+        assertEquals(objectMapper.writeValueAsString(BookingMapper.toBookingInfoDto(booking)) + "\n",
+            out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void exportBookingsByUserId_whenFormatCsv_thenWriteHeaderAndQuoteItemName() throws Exception {
+        when(userRepository.existsById(2L)).thenReturn(true);
+        when(bookingRepository.streamByBooker_Id(2L)).thenReturn(Stream.of(exportedBooking("Дрель, \"ударная\"")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        bookingService.exportBookingsByUserId(2L, BookingExportFormat.CSV).writeTo(out);
+
+        assertEquals("id,start,end,status,item_id,item_name,booker_id\n"
+                + "5,2030-01-01T10:00,2030-01-02T10:00,APPROVED,3,\"Дрель, \"\"ударная\"\"\",2\n",
+            out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void exportBookingsByUserId_whenUserNotFound_thenThrowBeforeStreaming() {
+        when(userRepository.existsById(2L)).thenReturn(false);
+
+        assertThrows(NotFoundException.class,
+            () -> bookingService.exportBookingsByUserId(2L, BookingExportFormat.CSV));
+        verify(bookingRepository, never()).streamByBooker_Id(anyLong());
+    }
+
+    private Booking exportedBooking(String itemName) {
+        User booker = new User();
+        booker.setId(2L);
+
+        Item item = new Item();
+        item.setId(3L);
+        item.setName(itemName);
+
+        Booking booking = new Booking();
+        booking.setId(5L);
+        booking.setStart(LocalDateTime.of(2030, 1, 1, 10, 0));
+        booking.setEnd(LocalDateTime.of(2030, 1, 2, 10, 0));
+        booking.setStatus(BookingStatus.APPROVED);
+        booking.setBooker(booker);
+        booking.setItem(item);
+        return booking;
+    }
+
+    @Test
+    void getOwnerStats_whenItemsHaveBookings_thenSumOwnerTotals() {
+        long ownerId = 1L;
+        LocalDateTime start = LocalDateTime.of(2026, 9, 1, 0, 0);
+        LocalDateTime end = start.plusHours(10);
+        LocalDateTime nextStart = LocalDateTime.now().plusDays(1);
+
+        when(userRepository.existsById(ownerId)).thenReturn(true);
+        when(bookingRepository.findOwnerStats(anyLong(), any(), any(), any())).thenReturn(List.of(
+            statsView(1L, 4L, 3600 * 5, 10L, nextStart.plusHours(1)),
+            statsView(2L, 2L, 3600, 11L, nextStart),
+            statsView(3L, 0L, 0, null, null)));
+
+        OwnerBookingStatsDto stats = bookingService.getOwnerStats(ownerId, start, end);
+
+        assertEquals(6L, stats.getCounts().get(BookingState.ALL));
+        assertEquals(6.0, stats.getBookedHours());
+        assertEquals(20.0, stats.getUtilization());
+        assertEquals(50.0, stats.getItems().get(0).getUtilization());
+        assertEquals(11L, stats.getNextBooking().getId());
+        assertEquals(2L, stats.getNextBooking().getItemId());
+        assertNull(stats.getItems().get(2).getNextBooking());
+        verify(bookingRepository).findOwnerStats(anyLong(), any(), eq(start), eq(end));
+    }
+
+    @Test
+    void getOwnerStats_whenStartNotBeforeEnd_thenThrowValidationException() {
+        long ownerId = 1L;
+        LocalDateTime start = LocalDateTime.now();
+
+        when(userRepository.existsById(ownerId)).thenReturn(true);
+
+        ValidationException ex = assertThrows(ValidationException.class,
+            () -> bookingService.getOwnerStats(ownerId, start, start));
+
+        assertEquals("Начало периода должно быть раньше его окончания", ex.getMessage());
+        verify(bookingRepository, never()).findOwnerStats(anyLong(), any(), any(), any());
+    }
+
+    private ItemBookingStatsView statsView(long itemId, long all, double bookedSeconds, Long nextBookingId,
+        LocalDateTime nextStart) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("itemId", itemId);
+        row.put("itemName", "item" + itemId);
+        row.put("allCount", all);
+        row.put("currentCount", 0L);
+        row.put("pastCount", all);
+        row.put("futureCount", 0L);
+        row.put("waitingCount", 0L);
+        row.put("rejectedCount", 0L);
+        row.put("bookedSeconds", bookedSeconds);
+        row.put("nextBookingId", nextBookingId);
+        row.put("nextBookerId", nextBookingId == null ? null : 5L);
+        row.put("nextBookingStart", nextStart);
+
+        return new SpelAwareProxyProjectionFactory().createProjection(ItemBookingStatsView.class, row);
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.booking.storage;
+
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class BookingPartitionMaintenanceTest {
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void maintain_createsPartitionsAheadAndArchivesOldOnes() {
+        LocalDate cutoff = LocalDate.now().withDayOfMonth(1).minusMonths(24);
+        when(jdbcTemplate.queryForObject("select bookings_create_partitions(?)", Integer.class, 6))
+            .thenReturn(1);
+        when(jdbcTemplate.queryForObject(eq("select bookings_archive_partitions(?)"), eq(Integer.class),
+            eq(cutoff))).thenReturn(1);
+
+        new BookingPartitionMaintenance(jdbcTemplate, 6, 24).maintain();
+
+        verify(jdbcTemplate).queryForObject("select bookings_create_partitions(?)", Integer.class, 6);
+        verify(jdbcTemplate).queryForObject("select bookings_archive_partitions(?)", Integer.class, cutoff);
+    }
+}
@@ -0,0 +1,106 @@
+package ru.practicum.shareit.booking.storage;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.ScheduledFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.TaskScheduler;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
+
+@ExtendWith(MockitoExtension.class)
+class BookingPhaseSchedulerTest {
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private TaskScheduler taskScheduler;
+    private BookingPhaseScheduler phaseScheduler;
+    private ScheduledFuture<?> scheduledRun;
+    private LocalDateTime nextStart;
+    private LocalDateTime nextEnd;
+
+    @BeforeEach
+    void setUp() {
+        phaseScheduler = new BookingPhaseScheduler(bookingRepository, taskScheduler);
+        scheduledRun = mock(ScheduledFuture.class);
+        nextStart = LocalDateTime.now().plusHours(2);
+        nextEnd = LocalDateTime.now().plusHours(1);
+    }
+
+    @Test
+    void advance_whenBoundariesAhead_thenMovePhasesAndWaitForEarliest() {
+        when(bookingRepository.findNextStart()).thenReturn(nextStart);
+        when(bookingRepository.findNextEnd()).thenReturn(nextEnd);
+
+        phaseScheduler.advance();
+
+        verify(bookingRepository).finishBookings(any());
+        verify(bookingRepository).startBookings(any());
+        verify(taskScheduler).schedule(any(Runnable.class), eq(toInstant(nextEnd)));
+    }
+
+    @Test
+    void advance_whenNoBoundaries_thenScheduleNothing() {
+        phaseScheduler.advance();
+
+        verify(taskScheduler, never()).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    void register_whenBookingStartsBeforeScheduledBoundary_thenReschedule() {
+        when(bookingRepository.findNextStart()).thenReturn(nextStart);
+        doReturn(scheduledRun).when(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+        phaseScheduler.advance();
+
+        LocalDateTime earlierStart = nextStart.minusMinutes(30);
+        phaseScheduler.register(booking(earlierStart, nextStart.plusHours(1)));
+
+        verify(scheduledRun).cancel(false);
+        verify(taskScheduler).schedule(any(Runnable.class), eq(toInstant(earlierStart)));
+    }
+
+    @Test
+    void register_whenBookingStartsAfterScheduledBoundary_thenKeepSchedule() {
+        when(bookingRepository.findNextStart()).thenReturn(nextStart);
+        doReturn(scheduledRun).when(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+        phaseScheduler.advance();
+
+        phaseScheduler.register(booking(nextStart.plusMinutes(30), nextStart.plusHours(1)));
+
+        verify(scheduledRun, never()).cancel(false);
+        verify(taskScheduler, times(1)).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    void register_whenBookingAlreadyPast_thenScheduleNothing() {
+        phaseScheduler.register(booking(LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1)));
+
+        verify(taskScheduler, never()).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    private static Booking booking(LocalDateTime start, LocalDateTime end) {
+        Booking booking = new Booking();
+        booking.setStart(start);
+        booking.setEnd(end);
+        booking.setPhase(BookingPhase.at(start, end, LocalDateTime.now()));
+        return booking;
+    }
+
+    private static Instant toInstant(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant();
+    }
+}
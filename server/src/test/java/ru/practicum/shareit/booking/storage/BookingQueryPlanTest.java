@@ -0,0 +1,69 @@
+package ru.practicum.shareit.booking.storage;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.model.BookingState;
+
+@DataJpaTest
+class BookingQueryPlanTest {
+    private static final String TABLE_SCAN = "tableScan";
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @ParameterizedTest
+    @EnumSource(BookingState.class)
+    void explain_whenBookerQuery_thenUseBookerIndex(BookingState state) {
+        String plan = explain(BookingQuery.byBooker(1L)
+            .inState(state, LocalDateTime.now())
+            .after(new BookingCursor(LocalDateTime.now(), 1L))
+            .page(0, 10));
+
+        assertFalse(plan.contains(TABLE_SCAN), plan);
+        assertTrue(plan.contains("BOOKER_ID = ?1"), plan);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = BookingState.class, names = {"CURRENT", "PAST", "FUTURE"})
+    void explain_whenBookerQueryByPhase_thenUseBookerPhaseIndex(BookingState state) {
+        String plan = explain(BookingQuery.byBooker(1L)
+            .inState(state, LocalDateTime.now())
+            .page(0, 10));
+
+        assertTrue(plan.contains("BOOKINGS_BOOKER_PHASE_START_IDX"), plan);
+        assertTrue(plan.contains("PHASE = '" + state.name() + "'"), plan);
+    }
+
+    @ParameterizedTest
+    @EnumSource(BookingState.class)
+    void explain_whenOwnerQuery_thenUseOwnerAndItemIndexes(BookingState state) {
+        String plan = explain(BookingQuery.byOwner(1L)
+            .inState(state, LocalDateTime.now())
+            .page(0, 10));
+
+        assertFalse(plan.contains(TABLE_SCAN), plan);
+        assertTrue(plan.contains(": OWNER_ID = ?1"), plan);
+        assertTrue(plan.contains(": ITEM_ID = I.ITEM_ID"), plan);
+    }
+
+    private String explain(BookingQuery bookingQuery) {
+        Query query = entityManager.createNativeQuery("explain " + bookingQuery.getSql());
+        List<Object> parameters = bookingQuery.getParameters();
+
+        for (int i = 0; i < parameters.size(); i++) {
+            query.setParameter(i + 1, parameters.get(i));
+        }
+
+        return String.valueOf(query.getSingleResult());
+    }
+}
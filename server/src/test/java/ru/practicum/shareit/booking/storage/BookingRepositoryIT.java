@@ -1,16 +1,23 @@
 package ru.practicum.shareit.booking.storage;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
-import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingPhase;
+import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.storage.ItemRepository;
@@ -29,13 +36,14 @@ class BookingRepositoryIT {
     private ItemRequestsRepository itemRequestRepository;
     @Autowired
     private BookingRepository bookingRepository;
+    @Autowired
+    private EntityManager entityManager;
     private User owner;
     private User requester;
     private User booker;
     private ItemRequest itemRequest;
     private Item item;
     private Booking booking;
-    private List<Item> items;
 
     @BeforeEach
     void setUp() {
@@ -66,7 +74,6 @@ class BookingRepositoryIT {
         item.setAvailable(true);
         item.setOwner(owner);
         item.setItemRequest(itemRequest);
-        items = List.of(item);
         itemRepository.save(item);
 
         booking = new Booking();
@@ -79,114 +86,287 @@ class BookingRepositoryIT {
     }
 
     @Test
-    void findByBooker_Id_whenBookingCreated_thenReturnList() {
-        List<Booking> bookings = bookingRepository.findByBooker_Id(booker.getId(), PageRequest.of(0, 1))
-            .getContent();
+    void save_whenBookingSaved_thenPhaseFollowsDates() {
+        assertEquals(BookingPhase.FUTURE, booking.getPhase());
+
+        booking.setStart(LocalDateTime.now().minusSeconds(3));
+        bookingRepository.saveAndFlush(booking);
+
+        assertEquals(BookingPhase.CURRENT, booking.getPhase());
+    }
+
+    @Test
+    void finishBookingsAndStartBookings_whenBoundariesPassed_thenMovePhases() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        booking.setStart(now.plusMinutes(30));
+        booking.setEnd(now.plusHours(3));
+        bookingRepository.save(booking);
+
+        Booking current = new Booking();
+        current.setBooker(booker);
+        current.setStart(now.minusHours(2));
+        current.setEnd(now.plusHours(1));
+        current.setStatus(BookingStatus.APPROVED);
+        current.setItem(item);
+        bookingRepository.save(current);
+
+        assertEquals(now.plusMinutes(30), bookingRepository.findNextStart());
+        assertEquals(now.plusHours(1), bookingRepository.findNextEnd());
+
+        LocalDateTime later = now.plusHours(1);
+        assertEquals(1, bookingRepository.finishBookings(later));
+        assertEquals(1, bookingRepository.startBookings(later));
+        entityManager.clear();
+
+        assertEquals(BookingPhase.PAST, bookingRepository.findById(current.getId()).orElseThrow().getPhase());
+        assertEquals(BookingPhase.CURRENT, bookingRepository.findById(booking.getId()).orElseThrow().getPhase());
+        assertNull(bookingRepository.findNextStart());
+        assertEquals(now.plusHours(3), bookingRepository.findNextEnd());
+    }
+
+    @Test
+    void findOwnerStats_whenOwnerHasItems_thenAggregatePerItem() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking past = new Booking();
+        past.setBooker(booker);
+        past.setStart(now.minusHours(3));
+        past.setEnd(now.minusHours(1));
+        past.setStatus(BookingStatus.APPROVED);
+        past.setItem(item);
+        bookingRepository.save(past);
+
+        Booking rejected = new Booking();
+        rejected.setBooker(booker);
+        rejected.setStart(now.minusMinutes(90));
+        rejected.setEnd(now.minusMinutes(30));
+        rejected.setStatus(BookingStatus.REJECTED);
+        rejected.setItem(item);
+        bookingRepository.save(rejected);
+
+        Item idle = new Item();
+        idle.setName("idle");
+        idle.setDescription("idleDescription");
+        idle.setAvailable(true);
+        idle.setOwner(owner);
+        itemRepository.save(idle);
+
+        List<ItemBookingStatsView> stats = bookingRepository.findOwnerStats(owner.getId(), now,
+            now.minusHours(2), now);
+
+        assertEquals(2, stats.size());
+        ItemBookingStatsView itemStats = stats.get(0);
+        assertEquals(item.getId(), itemStats.getItemId());
+        assertEquals(3, itemStats.getAllCount());
+        assertEquals(0, itemStats.getCurrentCount());
+        assertEquals(2, itemStats.getPastCount());
+        assertEquals(1, itemStats.getFutureCount());
+        assertEquals(0, itemStats.getWaitingCount());
+        assertEquals(1, itemStats.getRejectedCount());
+        assertEquals(3600, itemStats.getBookedSeconds(), 1);
+        assertEquals(booking.getId(), itemStats.getNextBookingId());
+        assertEquals(booker.getId(), itemStats.getNextBookerId());
+
+        ItemBookingStatsView idleStats = stats.get(1);
+        assertEquals(idle.getId(), idleStats.getItemId());
+        assertEquals(0, idleStats.getAllCount());
+        assertEquals(0, idleStats.getBookedSeconds());
+        assertNull(idleStats.getNextBookingId());
+    }
+
+    @Test
+    void streamByBooker_Id_whenBookerHasBookings_thenStreamInStartOrder() {
+        Booking earlier = new Booking();
+        earlier.setBooker(booker);
+        earlier.setStart(LocalDateTime.now().minusDays(2));
+        earlier.setEnd(LocalDateTime.now().minusDays(1));
+        earlier.setStatus(BookingStatus.APPROVED);
+        earlier.setItem(item);
+        bookingRepository.save(earlier);
+
+        List<Long> ids;
+        try (Stream<Booking> bookings = bookingRepository.streamByBooker_Id(booker.getId())) {
+            ids = bookings.map(Booking::getId).collect(Collectors.toList());
+        }
+
+        assertEquals(List.of(earlier.getId(), booking.getId()), ids);
+    }
+
+    @Test
+    void streamByBooker_Id_whenBookingArchived_thenStreamItBeforeCurrentBookings() {
+        long archivedId = booking.getId() + 1000;
+        entityManager.createNativeQuery("insert into bookings_archive " +
+                "(booking_id, start_date_time, end_date_time, item_id, booker_id, status, phase) " +
+                "values (?1, ?2, ?3, ?4, ?5, 'APPROVED', 'PAST')")
+            .setParameter(1, archivedId)
+            .setParameter(2, LocalDateTime.now().minusYears(4))
+            .setParameter(3, LocalDateTime.now().minusYears(4).plusDays(1))
+            .setParameter(4, item.getId())
+            .setParameter(5, booker.getId())
+            .executeUpdate();
+
+        List<Booking> exported;
+        try (Stream<Booking> bookings = bookingRepository.streamByBooker_Id(booker.getId())) {
+            exported = bookings.collect(Collectors.toList());
+        }
+
+        assertEquals(List.of(archivedId, booking.getId()),
+            exported.stream().map(Booking::getId).collect(Collectors.toList()));
+        assertEquals("item", exported.get(0).getItem().getName());
+        assertEquals(BookingPhase.PAST, exported.get(0).getPhase());
+        entityManager.clear();
+        assertTrue(bookingRepository.findById(archivedId).isEmpty());
+    }
+
+    @Test
+    void findSlice_whenBookerStateAll_thenReturnList() {
+        List<Booking> bookings = bookingRepository.findSlice(BookingQuery.byBooker(booker.getId())
+            .inState(BookingState.ALL, LocalDateTime.now())
+            .page(0, 1));
 
         assertEquals(1, bookings.size());
     }
 
     @Test
-    void findByBooker_IdAndStartAfter_whenStartAfterNow_thenReturnList() {
-        List<Booking> bookings = bookingRepository
-            .findByBooker_IdAndStartAfter(booker.getId(), LocalDateTime.now(), PageRequest.of(0, 1))
-            .getContent();
+    void findSlice_whenBookerStateFutureAndStartAfterNow_thenReturnList() {
+        List<Booking> bookings = bookingRepository.findSlice(BookingQuery.byBooker(booker.getId())
+            .inState(BookingState.FUTURE, LocalDateTime.now())
+            .page(0, 1));
 
         assertEquals(1, bookings.size());
     }
 
     @Test
-    void findByBooker_IdAndEndBefore_whenEndBeforeNow_thenReturnList() {
-        booking.setStart(LocalDateTime.now().minusSeconds(3));
-        booking.setEnd(LocalDateTime.now().minusSeconds(20));
+    void findSlice_whenBookerStatePastAndEndBeforeNow_thenReturnList() {
+        booking.setStart(LocalDateTime.now().minusSeconds(20));
+        booking.setEnd(LocalDateTime.now().minusSeconds(3));
         bookingRepository.save(booking);
 
-        List<Booking> bookings = bookingRepository
-            .findByBooker_IdAndEndBefore(booker.getId(), LocalDateTime.now(), PageRequest.of(0, 1))
-            .getContent();
+        List<Booking> bookings = bookingRepository.findSlice(BookingQuery.byBooker(booker.getId())
+            .inState(BookingState.PAST, LocalDateTime.now())
+            .page(0, 1));
 
         assertEquals(1, bookings.size());
     }
 
     @Test
-    void findByBooker_IdAndStartLessThanEqualAndEndAfter_whenStartBeforeNowAndEndBeforeNow_thenReturnList() {
+    void findSlice_whenBookerStateCurrentAndStartBeforeNowAndEndAfterNow_thenReturnList() {
         booking.setStart(LocalDateTime.now().minusSeconds(3));
         bookingRepository.save(booking);
 
-        List<Booking> bookings = bookingRepository
-            .findByBooker_IdAndStartLessThanEqualAndEndAfter(booker.getId(), LocalDateTime.now(),
-                LocalDateTime.now(), PageRequest.of(0, 1))
-            .getContent();
+        List<Booking> bookings = bookingRepository.findSlice(BookingQuery.byBooker(booker.getId())
+            .inState(BookingState.CURRENT, LocalDateTime.now())
+            .page(0, 1));
 
         assertEquals(1, bookings.size());
     }
 
     @Test
-    void findByBooker_IdAndStatusEquals_whenStatusApproved_thenReturnList() {
-        List<Booking> bookings = bookingRepository
-            .findByBooker_IdAndStatusEquals(booker.getId(), BookingStatus.APPROVED, PageRequest.of(0, 1))
-            .getContent();
+    void findSlice_whenBookerStateWaitingAndStatusWaiting_thenReturnList() {
+        booking.setStatus(BookingStatus.WAITING);
+        bookingRepository.save(booking);
+
+        List<Booking> bookings = bookingRepository.findSlice(BookingQuery.byBooker(booker.getId())
+            .inState(BookingState.WAITING, LocalDateTime.now())
+            .page(0, 1));
 
         assertEquals(1, bookings.size());
     }
 
     @Test
-    void findByItem_Owner_Id_whenItemOwnerIdIsPresent_thenReturnList() {
-        List<Booking> bookings = bookingRepository.findByItem_Owner_Id(owner.getId(), PageRequest.of(0, 1))
-            .getContent();
+    void findSlice_whenBookerStateRejectedAndStatusApproved_thenReturnEmptyList() {
+        List<Booking> bookings = bookingRepository.findSlice(BookingQuery.byBooker(booker.getId())
+            .inState(BookingState.REJECTED, LocalDateTime.now())
+            .page(0, 1));
+
+        assertEquals(0, bookings.size());
+    }
+
+    @Test
+    void findSlice_whenOwnerStateAll_thenReturnList() {
+        List<Booking> bookings = bookingRepository.findSlice(BookingQuery.byOwner(owner.getId())
+            .inState(BookingState.ALL, LocalDateTime.now())
+            .page(0, 1));
 
         assertEquals(1, bookings.size());
     }
 
     @Test
-    void findByItem_Owner_IdAndStartAfter_whenStartAfterNow_thenReturnList() {
-        List<Booking> bookings = bookingRepository
-            .findByItem_Owner_IdAndStartAfter(owner.getId(), LocalDateTime.now(), PageRequest.of(0, 1))
-            .getContent();
+    void findSlice_whenOwnerStateFutureAndStartAfterNow_thenReturnList() {
+        List<Booking> bookings = bookingRepository.findSlice(BookingQuery.byOwner(owner.getId())
+            .inState(BookingState.FUTURE, LocalDateTime.now())
+            .page(0, 1));
 
         assertEquals(1, bookings.size());
     }
 
     @Test
-    void findByItem_Owner_IdAndEndBefore_whenEndBeforeNow_thenReturnList() {
-        booking.setStart(LocalDateTime.now().minusSeconds(3));
-        booking.setEnd(LocalDateTime.now().minusSeconds(1));
+    void findSlice_whenOwnerStatePastAndEndBeforeNow_thenReturnList() {
+        booking.setStart(LocalDateTime.now().minusSeconds(20));
+        booking.setEnd(LocalDateTime.now().minusSeconds(3));
         bookingRepository.save(booking);
 
-        List<Booking> bookings = bookingRepository
-            .findByItem_Owner_IdAndEndBefore(owner.getId(), LocalDateTime.now(), PageRequest.of(0, 1))
-            .getContent();
+        List<Booking> bookings = bookingRepository.findSlice(BookingQuery.byOwner(owner.getId())
+            .inState(BookingState.PAST, LocalDateTime.now())
+            .page(0, 1));
 
         assertEquals(1, bookings.size());
     }
 
     @Test
-    void findByItem_Owner_IdAndStartLessThanEqualAndEndAfter_whenStartBeforeNowAndEndAfterNow_thenReturnList() {
+    void findSlice_whenOwnerStateCurrentAndStartBeforeNowAndEndAfterNow_thenReturnList() {
         booking.setStart(LocalDateTime.now().minusSeconds(3));
         bookingRepository.save(booking);
 
-        List<Booking> bookings = bookingRepository
-            .findByItem_Owner_IdAndStartLessThanEqualAndEndAfter(owner.getId(), LocalDateTime.now(),
-                LocalDateTime.now(), PageRequest.of(0, 1))
-            .getContent();
+        List<Booking> bookings = bookingRepository.findSlice(BookingQuery.byOwner(owner.getId())
+            .inState(BookingState.CURRENT, LocalDateTime.now())
+            .page(0, 1));
 
         assertEquals(1, bookings.size());
     }
 
     @Test
-    void findByItem_Owner_IdAndStatusEquals_whenStatusApproved_thenReturnList() {
-        List<Booking> bookings = bookingRepository
-            .findByItem_Owner_IdAndStatusEquals(owner.getId(), BookingStatus.APPROVED, PageRequest.of(0, 1))
-            .getContent();
+    void findSlice_whenOwnerStateWaitingAndStatusWaiting_thenReturnList() {
+        booking.setStatus(BookingStatus.WAITING);
+        bookingRepository.save(booking);
+
+        List<Booking> bookings = bookingRepository.findSlice(BookingQuery.byOwner(owner.getId())
+            .inState(BookingState.WAITING, LocalDateTime.now())
+            .page(0, 1));
 
         assertEquals(1, bookings.size());
     }
 
     @Test
-    void findByItem_IdAndStatusNot_whenStatusRejected_thenReturnList() {
-        List<Booking> bookings = bookingRepository.findByItem_IdAndStatusNot(item.getId(), BookingStatus.REJECTED);
+    void findSlice_whenOwnerStateRejectedAndStatusApproved_thenReturnEmptyList() {
+        List<Booking> bookings = bookingRepository.findSlice(BookingQuery.byOwner(owner.getId())
+            .inState(BookingState.REJECTED, LocalDateTime.now())
+            .page(0, 1));
 
-        assertEquals(1, bookings.size());
+        assertEquals(0, bookings.size());
+    }
+
+    @Test
+    void findLastAndNextBookings_whenBookingsAroundNow_thenReturnOneRowPerItem() {
+        LocalDateTime now = LocalDateTime.of(2030, 1, 10, 10, 0);
+        booking.setStart(now.minusDays(5));
+        booking.setEnd(now.minusDays(4));
+        bookingRepository.save(booking);
+        Booking lastBooking = saveBooking(now.minusDays(2), BookingStatus.APPROVED);
+        saveBooking(now.minusDays(1), BookingStatus.REJECTED);
+        Booking nextBooking = saveBooking(now.plusDays(1), BookingStatus.WAITING);
+        saveBooking(now.plusDays(3), BookingStatus.APPROVED);
+
+        List<ItemBookingView> last = bookingRepository.findLastBookings(List.of(item.getId()), now,
+            BookingStatus.REJECTED);
+        List<ItemBookingView> next = bookingRepository.findNextBookings(List.of(item.getId()), now,
+            BookingStatus.REJECTED);
+
+        assertEquals(1, last.size());
+        assertEquals(lastBooking.getId(), last.get(0).getId());
+        assertEquals(booker.getId(), last.get(0).getBookerId());
+        assertEquals(item.getId(), last.get(0).getItemId());
+        assertEquals(1, next.size());
+        assertEquals(nextBooking.getId(), next.get(0).getId());
     }
 
     @Test
@@ -202,10 +382,60 @@ class BookingRepositoryIT {
     }
 
     @Test
-    void findByItemInAndStatusNot_whenStatusRejected_thenReturnList() {
-        List<Booking> bookings = bookingRepository.findByItemInAndStatusNot(items, BookingStatus.REJECTED);
+    void findNextBookings_whenOnlyRejectedAhead_thenReturnEmptyList() {
+        LocalDateTime now = LocalDateTime.of(2030, 1, 1, 0, 0);
+        booking.setStart(now.plusDays(1));
+        booking.setEnd(now.plusDays(2));
+        booking.setStatus(BookingStatus.REJECTED);
+        bookingRepository.save(booking);
+
+        List<ItemBookingView> next = bookingRepository.findNextBookings(List.of(item.getId()), now,
+            BookingStatus.REJECTED);
+
+        assertEquals(0, next.size());
+    }
+
+    @Test
+    void findSlice_whenCursorGiven_thenReturnBookingsAfterCursor() {
+        booking.setStart(LocalDateTime.of(2030, 1, 1, 10, 0));
+        booking.setEnd(LocalDateTime.of(2030, 1, 2, 10, 0));
+        bookingRepository.save(booking);
 
-        assertEquals(1, bookings.size());
+        Booking nextBooking = new Booking();
+        nextBooking.setBooker(booker);
+        nextBooking.setStart(booking.getStart().plusDays(1));
+        nextBooking.setEnd(booking.getEnd().plusDays(1));
+        nextBooking.setStatus(BookingStatus.WAITING);
+        nextBooking.setItem(item);
+        bookingRepository.save(nextBooking);
+
+        List<Booking> firstSlice = bookingRepository.findSlice(BookingQuery.byBooker(booker.getId())
+            .page(0, 1));
+        List<Booking> secondSlice = bookingRepository.findSlice(BookingQuery.byBooker(booker.getId())
+            .after(BookingCursor.of(firstSlice.get(0)))
+            .page(0, 1));
+        List<Booking> lastSlice = bookingRepository.findSlice(BookingQuery.byBooker(booker.getId())
+            .after(BookingCursor.of(secondSlice.get(0)))
+            .page(0, 1));
+
+        assertEquals(nextBooking.getId(), firstSlice.get(0).getId());
+        assertEquals(booking.getId(), secondSlice.get(0).getId());
+        assertEquals(0, lastSlice.size());
+    }
+
+    @Test
+    void findByItem_IdInAndStatusInAndStartBeforeAndEndAfter_whenRangeGiven_thenReturnActiveOverlapping() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        booking.setStart(from.minusDays(1));
+        booking.setEnd(from.minusHours(1));
+        bookingRepository.save(booking);
+        Booking overlapping = saveBooking(from.plusDays(1), BookingStatus.WAITING);
+        saveBooking(from.plusDays(2), BookingStatus.REJECTED);
+
+        List<Booking> bookings = bookingRepository.findByItem_IdInAndStatusInAndStartBeforeAndEndAfter(
+            List.of(item.getId()), ItemAvailabilityIndex.ACTIVE_STATUSES, from.plusDays(3), from);
+
+        assertEquals(List.of(overlapping.getId()), bookings.stream().map(Booking::getId).collect(Collectors.toList()));
     }
 
     @AfterEach
@@ -215,4 +445,14 @@ class BookingRepositoryIT {
         userRepository.deleteAll();
         bookingRepository.deleteAll();
     }
-}
\ No newline at end of file
+
+    private Booking saveBooking(LocalDateTime start, BookingStatus status) {
+        Booking other = new Booking();
+        other.setBooker(booker);
+        other.setItem(item);
+        other.setStart(start);
+        other.setEnd(start.plusHours(12));
+        other.setStatus(status);
+        return bookingRepository.save(other);
+    }
+}
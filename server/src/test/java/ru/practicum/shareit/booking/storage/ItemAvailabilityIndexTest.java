@@ -0,0 +1,166 @@
+package ru.practicum.shareit.booking.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+
+@ExtendWith(MockitoExtension.class)
+class ItemAvailabilityIndexTest {
+    @Mock
+    private BookingRepository bookingRepository;
+    private ItemAvailabilityIndex availabilityIndex;
+    private Booking booking;
+    private LocalDateTime start;
+    private LocalDateTime end;
+
+    @BeforeEach
+    void setUp() {
+        start = LocalDateTime.now().plusDays(1);
+        end = start.plusDays(2);
+
+        Item item = new Item();
+        item.setId(1L);
+
+        booking = new Booking();
+        booking.setId(1L);
+        booking.setItem(item);
+        booking.setStart(start);
+        booking.setEnd(end);
+        booking.setStatus(BookingStatus.WAITING);
+
+        when(bookingRepository.findByStatusInAndEndAfter(anyList(), any(LocalDateTime.class)))
+            .thenReturn(List.of(booking));
+
+        availabilityIndex = new ItemAvailabilityIndex(bookingRepository, ItemAvailabilityIndex.Mode.LOCAL);
+        availabilityIndex.load();
+    }
+
+    @Test
+    void isAvailable_whenIntervalOverlapsBooking_thenReturnFalse() {
+        assertFalse(availabilityIndex.isAvailable(1L, start.minusDays(1), start.plusHours(1)));
+        assertFalse(availabilityIndex.isAvailable(1L, start.plusHours(1), end.minusHours(1)));
+        assertFalse(availabilityIndex.isAvailable(1L, end.minusHours(1), end.plusDays(1)));
+        assertFalse(availabilityIndex.isAvailable(1L, start.minusDays(1), end.plusDays(1)));
+    }
+
+    @Test
+    void isAvailable_whenIntervalAdjacentToBooking_thenReturnTrue() {
+        assertTrue(availabilityIndex.isAvailable(1L, start.minusDays(1), start));
+        assertTrue(availabilityIndex.isAvailable(1L, end, end.plusDays(1)));
+        assertTrue(availabilityIndex.isAvailable(2L, start, end));
+    }
+
+    @Test
+    void reserve_whenIntervalFree_thenOccupyUntilReleased() {
+        LocalDateTime freeStart = end.plusDays(1);
+
+        assertTrue(availabilityIndex.reserve(1L, freeStart, freeStart.plusDays(1)));
+        assertFalse(availabilityIndex.reserve(1L, freeStart.plusHours(1), freeStart.plusDays(2)));
+        assertFalse(availabilityIndex.isAvailable(1L, freeStart, freeStart.plusDays(1)));
+
+        availabilityIndex.release(1L, freeStart);
+
+        assertTrue(availabilityIndex.isAvailable(1L, freeStart, freeStart.plusDays(1)));
+    }
+
+    @Test
+    void reserve_whenIntervalOverlapsBooking_thenReturnFalse() {
+        assertFalse(availabilityIndex.reserve(1L, start.plusHours(1), end.plusDays(1)));
+    }
+
+    @Test
+    void reserveChecked_whenIntervalOverlapsBooking_thenReturnFalse() {
+        assertFalse(availabilityIndex.reserveChecked(1L, start.plusHours(1), end.plusDays(1)));
+        assertTrue(availabilityIndex.reserveChecked(1L, end, end.plusDays(1)));
+        assertFalse(availabilityIndex.isAvailable(1L, end, end.plusDays(1)));
+    }
+
+    @Test
+    void release_whenBookingSaved_thenKeepBooking() {
+        availabilityIndex.release(1L, start);
+
+        assertFalse(availabilityIndex.isAvailable(1L, start, end));
+    }
+
+    @Test
+    void reserve_whenRacingForSameInterval_thenOnlyOneWins() throws InterruptedException {
+        LocalDateTime freeStart = end.plusDays(1);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch ready = new CountDownLatch(threads);
+        AtomicInteger won = new AtomicInteger();
+
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                ready.countDown();
+                try {
+                    ready.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (availabilityIndex.reserve(1L, freeStart, freeStart.plusDays(1))) {
+                    won.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(1, won.get());
+    }
+
+    @Test
+    void prune_whenBookingFinished_thenDropIt() {
+        availabilityIndex.add(finishedBooking());
+        assertEquals(2, availabilityIndex.slotCount(1L));
+
+        availabilityIndex.prune();
+
+        assertEquals(1, availabilityIndex.slotCount(1L));
+    }
+
+    @Test
+    void reserve_whenItemHasFinishedBooking_thenDropIt() {
+        availabilityIndex.add(finishedBooking());
+
+        assertTrue(availabilityIndex.reserve(1L, end.plusDays(1), end.plusDays(2)));
+
+        assertEquals(2, availabilityIndex.slotCount(1L));
+    }
+
+    @Test
+    void remove_whenBookingRejected_thenIntervalIsAvailable() {
+        availabilityIndex.remove(booking);
+
+        assertTrue(availabilityIndex.isAvailable(1L, start, end));
+    }
+
+    private Booking finishedBooking() {
+        Booking finished = new Booking();
+        finished.setId(2L);
+        finished.setItem(booking.getItem());
+        finished.setStart(LocalDateTime.now().minusDays(3));
+        finished.setEnd(LocalDateTime.now().minusDays(2));
+        return finished;
+    }
+}
@@ -0,0 +1,140 @@
+package ru.practicum.shareit.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+    "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({EntityCacheConfig.class, EntityCacheConfigIT.MetricsConfig.class})
+class EntityCacheConfigIT {
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setName("user");
+        user.setEmail("user@mail.com");
+        userRepository.save(user);
+    }
+
+    @Test
+    void findById_whenUserLoadedTwice_thenSecondLoadIsCacheHit() {
+        double hits = cacheHits("users");
+
+        userRepository.findById(user.getId());
+        userRepository.findById(user.getId());
+
+        assertTrue(cacheHits("users") > hits);
+    }
+
+    @Test
+    void existsById_whenUserCheckedTwice_thenSecondCheckIssuesNoSql() {
+        assertTrue(userRepository.existsById(user.getId()));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertTrue(userRepository.existsById(user.getId()));
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    void existsById_whenUserDeleted_thenReturnFalse() {
+        assertTrue(userRepository.existsById(user.getId()));
+
+        userRepository.deleteById(user.getId());
+
+        assertFalse(userRepository.existsById(user.getId()));
+    }
+
+    @Test
+    void findById_whenUserUpdated_thenReturnUpdatedUser() {
+        userRepository.findById(user.getId());
+
+        user.setName("updated");
+        userRepository.save(user);
+
+        assertEquals("updated", userRepository.findById(user.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void findById_whenUserDeleted_thenReturnEmpty() {
+        userRepository.findById(user.getId());
+
+        userRepository.deleteById(user.getId());
+
+        assertTrue(userRepository.findById(user.getId()).isEmpty());
+    }
+
+    @Test
+    void findById_whenItemUpdated_thenReturnUpdatedItem() {
+        Item item = new Item();
+        item.setName("item");
+        item.setDescription("description");
+        item.setAvailable(true);
+        item.setOwner(user);
+        itemRepository.save(item);
+        itemRepository.findById(item.getId());
+
+        item.setAvailable(false);
+        itemRepository.save(item);
+
+        assertEquals(false, itemRepository.findById(item.getId()).orElseThrow().getAvailable());
+    }
+
+    @AfterEach
+    void deleteAll() {
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private double cacheHits(String cacheName) {
+        return meterRegistry.get("cache.gets")
+            .tag("cache", cacheName)
+            .tag("result", "hit")
+            .functionCounter()
+            .count();
+    }
+
+    @TestConfiguration
+    static class MetricsConfig {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package ru.practicum.shareit.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class FairQueueDataSourceTest {
+    private DataSource target;
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        target = mock(DataSource.class);
+        connection = mock(Connection.class);
+        when(target.getConnection()).thenReturn(connection);
+    }
+
+    @Test
+    void getConnection_whenPermitsExhausted_thenTimeout() throws SQLException {
+        FairQueueDataSource dataSource = new FairQueueDataSource(target, 1, Duration.ofMillis(50));
+        dataSource.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+    }
+
+    @Test
+    void close_thenPermitReturnedOnce() throws Exception {
+        FairQueueDataSource dataSource = new FairQueueDataSource(target, 1, Duration.ofMillis(50));
+        Connection first = dataSource.getConnection();
+
+        first.close();
+        first.close();
+        dataSource.getConnection();
+
+        verify(connection, times(2)).close();
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+    }
+
+    @Test
+    void unwrap_whenConnectionInterface_thenCloseReturnsPermit() throws Exception {
+        FairQueueDataSource dataSource = new FairQueueDataSource(target, 1, Duration.ofMillis(50));
+        Connection first = dataSource.getConnection();
+
+        assertTrue(first.isWrapperFor(Connection.class));
+        Connection unwrapped = first.unwrap(Connection.class);
+        assertSame(first, unwrapped);
+        unwrapped.close();
+        dataSource.getConnection();
+
+        verify(connection, never()).unwrap(any());
+        verify(connection).close();
+    }
+
+    @Test
+    void getConnection_whenThreadsQueued_thenServeInArrivalOrder() throws Exception {
+        int waiters = 8;
+        FairQueueDataSource dataSource = new FairQueueDataSource(target, 1, Duration.ofSeconds(5));
+        Connection first = dataSource.getConnection();
+        List<Integer> served = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+
+        for (int i = 0; i < waiters; i++) {
+            int order = i;
+            Thread thread = new Thread(() -> {
+                try (Connection connection = dataSource.getConnection()) {
+                    served.add(order);
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+            while (dataSource.getQueueLength() <= i) {
+                Thread.onSpinWait();
+            }
+        }
+        first.close();
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+
+        assertEquals(IntStream.range(0, waiters).boxed().collect(Collectors.toList()), served);
+        assertEquals(0, dataSource.getQueueLength());
+        dataSource.getConnection();
+    }
+
+    @Test
+    void getConnection_whenWaiting_thenGetsConnectionOnRelease() throws Exception {
+        FairQueueDataSource dataSource = new FairQueueDataSource(target, 1, Duration.ofSeconds(5));
+        Connection first = dataSource.getConnection();
+
+        CompletableFuture<Connection> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return dataSource.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (dataSource.getQueueLength() == 0) {
+            Thread.onSpinWait();
+        }
+        first.close();
+
+        Connection second = waiting.get(5, TimeUnit.SECONDS);
+        second.commit();
+        verify(connection).commit();
+    }
+
+    @Test
+    void getConnection_whenTargetFails_thenPermitReturned() throws SQLException {
+        FairQueueDataSource dataSource = new FairQueueDataSource(target, 1, Duration.ofMillis(50));
+        when(target.getConnection()).thenThrow(new SQLException("down")).thenReturn(connection);
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+        dataSource.getConnection();
+
+        verify(target, times(2)).getConnection();
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JdbcBatchingIT {
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void saveAll_whenManyUsers_thenInsertedInJdbcBatches() {
+        List<User> users = IntStream.range(0, 120)
+            .mapToObj(i -> {
+                User user = new User();
+                user.setName("user" + i);
+                user.setEmail("user" + i + "@mail.com");
+                return user;
+            })
+            .collect(Collectors.toList());
+
+        userRepository.saveAll(users);
+
+        assertEquals(120, statistics.getEntityInsertCount());
+        // С IDENTITY - 120 отдельных INSERT, с последовательностью - пачки по batch_size=50
+        assertTrue(statistics.getPrepareStatementCount() <= 6);
+        assertEquals(120, users.stream().map(User::getId).distinct().count());
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+}
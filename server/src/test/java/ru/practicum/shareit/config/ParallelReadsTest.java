@@ -0,0 +1,129 @@
+package ru.practicum.shareit.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+import ru.practicum.shareit.exception.NotFoundException;
+
+class ParallelReadsTest {
+    private ExecutorService executor;
+    private SimpleMeterRegistry meterRegistry;
+    private List<String> transactions;
+    private ParallelReads parallelReads;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+        meterRegistry = new SimpleMeterRegistry();
+        transactions = new CopyOnWriteArrayList<>();
+        parallelReads = new ParallelReads(executor, recording("read-only"), recording("primary"), meterRegistry,
+            Duration.ofMillis(500));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void fork_thenBranchesRunConcurrently() throws InterruptedException {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+
+        CompletableFuture<Boolean> first = parallelReads.fork("first", () -> awaitOther(bothStarted));
+        CompletableFuture<Boolean> second = parallelReads.fork("second", () -> awaitOther(bothStarted));
+
+        assertEquals(true, parallelReads.join(first));
+        assertEquals(true, parallelReads.join(second));
+    }
+
+    @Test
+    void fork_thenBranchTimeRecorded() {
+        parallelReads.join(parallelReads.fork("comments", () -> "ok"));
+        parallelReads.read("item", () -> "ok");
+
+        assertEquals(1, meterRegistry.get(ParallelReads.TIMER).tag("branch", "comments").timer().count());
+        assertEquals(1, meterRegistry.get(ParallelReads.TIMER).tag("branch", "item").timer().count());
+    }
+
+    @Test
+    void fork_thenRunsOutsideCallerThread() {
+        Thread caller = Thread.currentThread();
+
+        Thread branch = parallelReads.join(parallelReads.fork("thread", Thread::currentThread));
+
+        assertNotEquals(caller, branch);
+    }
+
+    @Test
+    void fork_thenBranchInReadOnlyTransaction() {
+        parallelReads.join(parallelReads.fork("comments", () -> "ok"));
+        parallelReads.read("item", () -> "ok");
+
+        assertEquals(List.of("read-only", "read-only"), transactions);
+    }
+
+    @Test
+    void forkOnPrimary_thenBranchInPrimaryTransaction() {
+        parallelReads.join(parallelReads.forkOnPrimary("user-exists", () -> true));
+        parallelReads.readOnPrimary("request-items", () -> "ok");
+
+        assertEquals(List.of("primary", "primary"), transactions);
+        assertEquals(1, meterRegistry.get(ParallelReads.TIMER).tag("branch", "user-exists").timer().count());
+    }
+
+    @Test
+    void join_whenBranchThrows_thenSameException() {
+        CompletableFuture<Object> branch = parallelReads.fork("missing", () -> {
+            throw new NotFoundException("Не найдена вещь с id:1");
+        });
+
+        NotFoundException exception = assertThrows(NotFoundException.class, () -> parallelReads.join(branch));
+        assertEquals("Не найдена вещь с id:1", exception.getMessage());
+    }
+
+    @Test
+    void join_whenBranchTooSlow_thenQueryTimeout() {
+        CountDownLatch neverOpened = new CountDownLatch(2);
+
+        CompletableFuture<Boolean> branch = parallelReads.fork("slow", () -> awaitOther(neverOpened));
+
+        assertThrows(QueryTimeoutException.class, () -> parallelReads.join(branch));
+    }
+
+    private TransactionOperations recording(String name) {
+        return new TransactionOperations() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) {
+                transactions.add(name);
+                return action.doInTransaction(new SimpleTransactionStatus());
+            }
+        };
+    }
+
+    private boolean awaitOther(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package ru.practicum.shareit.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+@DataJpaTest(properties = {
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+    "shareit.datasource.replica.urls=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1",
+    "shareit.datasource.replica.lag-query=select 0",
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+    "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ReadWriteRoutingConfig.class, ParallelReadConfig.class, EntityCacheConfig.class,
+    ReadWriteRoutingIT.MetricsConfig.class})
+class ReadWriteRoutingIT {
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ReadWriteRoutingDataSource routingDataSource;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private ParallelReads parallelReads;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void readOnlyTransaction_whenReplicaAvailable_thenUseReplica() {
+        assertTrue(connectionUrl(true).startsWith("jdbc:h2:mem:replica"));
+        assertEquals(1.0, meterRegistry.get("shareit.datasource.replicas.available").gauge().value());
+    }
+
+    @Test
+    void readWriteTransaction_thenUsePrimary() {
+        assertTrue(connectionUrl(false).startsWith("jdbc:h2:mem:primary"));
+    }
+
+    @Test
+    void readOnlyTransaction_whenNotMarkedForReplica_thenUsePrimary() {
+        assertTrue(readOnly().execute(status -> currentUrl()).startsWith("jdbc:h2:mem:primary"));
+    }
+
+    @Test
+    void newTransaction_insideReplicaRead_thenUsePrimaryAndRestoreReplica() {
+        TransactionTemplate requiresNew = readWrite();
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        List<String> urls = replicaRead().execute(status -> List.of(
+            requiresNew.execute(inner -> currentUrl()),
+            currentUrl()));
+
+        assertTrue(urls.get(0).startsWith("jdbc:h2:mem:primary"));
+        assertTrue(urls.get(1).startsWith("jdbc:h2:mem:replica"));
+    }
+
+    @Test
+    void readOnlyTransaction_whenReplicaLagging_thenFallBackToPrimary() {
+        routingDataSource.setAvailable("replica-0", false);
+
+        assertTrue(connectionUrl(true).startsWith("jdbc:h2:mem:primary"));
+    }
+
+    @Test
+    void write_afterReadOnlyTransactionInSameSession_thenGoesToPrimary() {
+        // Схема создаётся Flyway только в основной базе, запись на реплику упала бы
+        connectionUrl(true);
+
+        User user = new User();
+        user.setName("user");
+        user.setEmail("user@mail.com");
+        User saved = userRepository.save(user);
+
+        assertTrue(saved.getId() > 0);
+    }
+
+    @Test
+    void parallelReads_thenForkOnReplicaAndForkOnPrimaryOnPrimary() {
+        String replicaUrl = parallelReads.join(parallelReads.fork("replica", this::currentUrl));
+        String primaryUrl = parallelReads.join(parallelReads.forkOnPrimary("primary", this::currentUrl));
+
+        assertTrue(replicaUrl.startsWith("jdbc:h2:mem:replica"));
+        assertTrue(primaryUrl.startsWith("jdbc:h2:mem:primary"));
+    }
+
+    @Test
+    void replicaRead_thenReadCacheWithoutPuts() {
+        assertEquals(CacheMode.GET, replicaRead().execute(status -> session().getCacheMode()));
+        assertEquals(CacheMode.NORMAL, readOnly().execute(status -> session().getCacheMode()));
+        assertEquals(CacheMode.NORMAL, readWrite().execute(status -> session().getCacheMode()));
+    }
+
+    @Test
+    void findById_whenReadFromLaggingReplica_thenStaleUserNotCached() {
+        long userId = saveUserWithStaleReplicaCopy();
+        Cache cache = entityManagerFactory.getCache();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        User fromReplica = replicaRead().execute(status -> userRepository.findById(userId).orElseThrow());
+        replicaRead().execute(status -> userRepository.existsById(userId));
+
+        assertEquals("stale", fromReplica.getName());
+        assertFalse(cache.contains(User.class, userId));
+        assertEquals(0, statistics.getQueryCachePutCount());
+
+        User fromPrimary = readWrite().execute(status -> userRepository.findById(userId).orElseThrow());
+
+        assertEquals("user", fromPrimary.getName());
+        assertTrue(cache.contains(User.class, userId));
+    }
+
+    @Test
+    void findById_whenCalledOutsideTransaction_thenReadPrimaryAndFillCache() {
+        // SimpleJpaRepository сам открывает read-only транзакцию, но без метки она остаётся на основной базе
+        long userId = saveUserWithStaleReplicaCopy();
+
+        assertEquals("user", userRepository.findById(userId).orElseThrow().getName());
+        assertTrue(userRepository.existsById(userId));
+        assertTrue(entityManagerFactory.getCache().contains(User.class, userId));
+    }
+
+    @AfterEach
+    void tearDown() {
+        routingDataSource.setAvailable("replica-0", true);
+        userRepository.deleteAll();
+        new JdbcTemplate(routingDataSource.getReplicas().get("replica-0")).execute("drop table if exists users");
+    }
+
+    private long saveUserWithStaleReplicaCopy() {
+        User user = new User();
+        user.setName("user");
+        user.setEmail("user@mail.com");
+        long userId = userRepository.save(user).getId();
+        // На реплику ещё не доехало переименование: у неё своя копия строки со старым именем
+        JdbcTemplate replica = new JdbcTemplate(routingDataSource.getReplicas().get("replica-0"));
+        replica.execute("create table users (user_id bigint primary key, name varchar(255), email varchar(512))");
+        replica.update("insert into users values (?, 'stale', 'user@mail.com')", userId);
+        entityManagerFactory.getCache().evictAll();
+        return userId;
+    }
+
+    private String connectionUrl(boolean replicaRead) {
+        return (replicaRead ? replicaRead() : readWrite()).execute(status -> currentUrl());
+    }
+
+    private String currentUrl() {
+        return session().doReturningWork(connection -> connection.getMetaData().getURL());
+    }
+
+    private TransactionTemplate replicaRead() {
+        TransactionTemplate transactionTemplate = readOnly();
+        transactionTemplate.setName(ReadWriteRoutingDataSource.REPLICA);
+        return transactionTemplate;
+    }
+
+    private TransactionTemplate readOnly() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate;
+    }
+
+    private TransactionTemplate readWrite() {
+        return new TransactionTemplate(transactionManager);
+    }
+
+    private Session session() {
+        return entityManager.unwrap(Session.class);
+    }
+
+    @TestConfiguration
+    static class MetricsConfig {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package ru.practicum.shareit.config;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+class ReplicaLagMonitorTest {
+    private static EmbeddedDatabase replica;
+    private ReadWriteRoutingDataSource routingDataSource;
+    private ReplicaProperties properties;
+
+    @BeforeAll
+    static void startReplica() {
+        replica = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).setName("lagging-replica").build();
+    }
+
+    @AfterAll
+    static void stopReplica() {
+        replica.shutdown();
+    }
+
+    @BeforeEach
+    void setUp() {
+        routingDataSource = mock(ReadWriteRoutingDataSource.class);
+        when(routingDataSource.getReplicas()).thenReturn(Map.<String, DataSource>of("replica-0", replica));
+        properties = new ReplicaProperties();
+        properties.setMaxLag(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void check_whenLagWithinLimit_thenReplicaAvailable() {
+        properties.setLagQuery("select 1.5");
+
+        new ReplicaLagMonitor(routingDataSource, properties).check();
+
+        verify(routingDataSource).setAvailable("replica-0", true);
+    }
+
+    @Test
+    void check_whenLagAboveLimit_thenReplicaExcluded() {
+        properties.setLagQuery("select 12");
+
+        new ReplicaLagMonitor(routingDataSource, properties).check();
+
+        verify(routingDataSource).setAvailable("replica-0", false);
+    }
+
+    @Test
+    void check_whenLagQueryFails_thenReplicaExcluded() {
+        properties.setLagQuery("select pg_last_xact_replay_timestamp()");
+
+        new ReplicaLagMonitor(routingDataSource, properties).check();
+
+        verify(routingDataSource).setAvailable("replica-0", false);
+    }
+}
@@ -9,6 +9,7 @@ import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -20,8 +21,10 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.controller.BookingController;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentInfoDto;
+import ru.practicum.shareit.item.dto.CommentPageDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemInfoDto;
 import ru.practicum.shareit.item.service.ItemService;
@@ -164,4 +167,19 @@ class ItemControllerIT {
 
         assertEquals(objectMapper.writeValueAsString(commentInfoDto), result);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getComments_whenNextPageExists_thenReturnCursorHeader() throws Exception {
+        CommentInfoDto commentInfoDto = new CommentInfoDto();
+        commentInfoDto.setText("text");
+
+        when(itemService.getComments(1L, null, 1))
+            .thenReturn(new CommentPageDto(List.of(commentInfoDto), "next"));
+
+        mockMvc.perform(get("/items/{itemId}/comments", 1L)
+                .param("size", "1"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(BookingController.NEXT_CURSOR_HEADER, "next"))
+            .andExpect(jsonPath("$[0].text").value("text"));
+    }
+}
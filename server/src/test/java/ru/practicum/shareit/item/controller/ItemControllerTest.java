@@ -17,6 +17,7 @@ import ru.practicum.shareit.item.dto.CommentInfoDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemInfoDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
@@ -40,7 +41,7 @@ class ItemControllerTest {
         User owner = new User();
         owner.setId(userId);
         item.setOwner(owner);
-        ItemInfoDto itemInfoDto = ItemMapper.toItemInfoDto(item, new ArrayList<>(), new ArrayList<>());
+        ItemInfoDto itemInfoDto = ItemMapper.toItemInfoDto(item, null, null, new ArrayList<>());
 
         when(itemService.getItemById(userId, itemId)).thenReturn(itemInfoDto);
 
@@ -110,6 +111,15 @@ class ItemControllerTest {
         assertEquals("name", resultItemDtoList.get(0).getName());
     }
 
+    @Test
+    void autocomplete_whenPrefixPresent_thenReturnSuggestions() {
+        List<ItemSuggestionDto> suggestions = List.of(new ItemSuggestionDto(1L, "name"));
+
+        when(itemService.autocomplete("na", 10)).thenReturn(suggestions);
+
+        assertEquals(suggestions, itemController.autocomplete("na", 10));
+    }
+
     @Test
     void addComment_whenCommentValid_thenReturnComment() {
         long authorId = 1L;
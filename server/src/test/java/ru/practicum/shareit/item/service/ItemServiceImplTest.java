@@ -2,40 +2,59 @@ package ru.practicum.shareit.item.service;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
-import static org.springframework.data.domain.Sort.Direction.DESC;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.support.TransactionOperations;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.booking.storage.ItemAvailabilityIndex;
+import ru.practicum.shareit.booking.storage.ItemBookingView;
+import ru.practicum.shareit.config.ParallelReads;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.CommentCursor;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentInfoDto;
 import ru.practicum.shareit.item.dto.CommentMapper;
+import ru.practicum.shareit.item.dto.CommentPageDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemInfoDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.storage.CommentRepository;
+import ru.practicum.shareit.item.storage.ItemNameIndex;
 import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.item.storage.ItemSearch;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.storage.ItemRequestsRepository;
 import ru.practicum.shareit.user.model.User;
@@ -56,6 +75,15 @@ class ItemServiceImplTest {
     private ItemRequestsRepository itemRequestRepository;
     @Mock
     private ItemRepository itemRepository;
+    @Mock
+    private ItemSearch itemSearch;
+    @Mock
+    private ItemNameIndex itemNameIndex;
+    @Mock
+    private EntityManager entityManager;
+    @Spy
+    private ParallelReads parallelReads = new ParallelReads(Runnable::run, TransactionOperations.withoutTransaction(),
+        TransactionOperations.withoutTransaction(), new SimpleMeterRegistry(), Duration.ofSeconds(5));
 
     @Test
     void getItemById_whenItemValid_thenReturnItem() {
@@ -74,16 +102,45 @@ class ItemServiceImplTest {
 
         List<Comment> comments = List.of(comment);
 
-        ItemInfoDto expectedItemInfoDto = ItemMapper.toItemInfoDto(item, new ArrayList<>(), comments);
+        ItemInfoDto expectedItemInfoDto = ItemMapper.toItemInfoDto(item, null, null, comments);
 
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        when(commentRepository.findByItem_Id(itemId)).thenReturn(comments);
+        when(commentRepository.findByItem_Id(itemId,
+            PageRequest.of(0, CommentRepository.RECENT_COMMENTS_LIMIT, CommentRepository.NEWEST_FIRST)))
+            .thenReturn(comments);
 
         ItemInfoDto actualItemInfoDto = itemService.getItemById(userId, itemId);
 
         assertEquals(expectedItemInfoDto, actualItemInfoDto);
     }
 
+    @Test
+    void getItemById_whenUserIsOwner_thenReturnItemWithLastAndNextBooking() {
+        long ownerId = 3L;
+        long itemId = 1L;
+        Item item = new Item();
+        item.setId(itemId);
+        User owner = new User();
+        owner.setId(ownerId);
+        item.setOwner(owner);
+        ItemBookingView lastBooking = itemBooking(itemId, 10L, 5L);
+        ItemBookingView nextBooking = itemBooking(itemId, 11L, 6L);
+
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(commentRepository.findByItem_Id(eq(itemId), any(PageRequest.class))).thenReturn(new ArrayList<>());
+        when(bookingRepository.findLastBookings(eq(List.of(itemId)), any(LocalDateTime.class),
+            eq(BookingStatus.REJECTED)))
+            .thenReturn(List.of(lastBooking));
+        when(bookingRepository.findNextBookings(eq(List.of(itemId)), any(LocalDateTime.class),
+            eq(BookingStatus.REJECTED)))
+            .thenReturn(List.of(nextBooking));
+
+        ItemInfoDto actualItemInfoDto = itemService.getItemById(ownerId, itemId);
+
+        assertEquals(new ItemInfoDto.BookingInfoDto(10L, 5L), actualItemInfoDto.getLastBooking());
+        assertEquals(new ItemInfoDto.BookingInfoDto(11L, 6L), actualItemInfoDto.getNextBooking());
+    }
+
     @Test
     void getItemById_whenItemNotCreated_thenReturnItem() {
         long userId = 0L;
@@ -129,13 +186,19 @@ class ItemServiceImplTest {
         itemInfoDtoForMapping.setAvailable(item.getAvailable());
         itemInfoDtoForMapping.setDescription(item.getDescription());
 
-        ItemInfoDto itemInfoDto = ItemMapper.toItemInfoDto(item, new ArrayList<>(), comments);
+        ItemInfoDto itemInfoDto = ItemMapper.toItemInfoDto(item, null, null, comments);
         List<ItemInfoDto> itemInfoDtoList = List.of(itemInfoDto);
 
         when(itemRepository.findByOwnerId(ownerId, pageRequest)).thenReturn(itemPages);
-        when(commentRepository.findByItemIn(items, Sort.by(DESC, "created")))
+        when(commentRepository.findRecentIdsByItemIds(List.of(item.getId()), CommentRepository.RECENT_COMMENTS_LIMIT))
+            .thenReturn(List.of(7L));
+        when(commentRepository.findByIdIn(List.of(7L), CommentRepository.NEWEST_FIRST))
             .thenReturn(comments);
-        when(bookingRepository.findByItemInAndStatusNot(items, BookingStatus.REJECTED))
+        when(bookingRepository.findLastBookings(eq(List.of(item.getId())), any(LocalDateTime.class),
+            eq(BookingStatus.REJECTED)))
+            .thenReturn(new ArrayList<>());
+        when(bookingRepository.findNextBookings(eq(List.of(item.getId())), any(LocalDateTime.class),
+            eq(BookingStatus.REJECTED)))
             .thenReturn(new ArrayList<>());
 
         List<ItemInfoDto> resultItemInfoDtoList = itemService.getAllItemsByUserId(ownerId, from, size);
@@ -177,6 +240,7 @@ class ItemServiceImplTest {
         ItemDto actualItemDto = itemService.createItem(ownerId, itemDto);
 
         assertEquals(itemDto, actualItemDto);
+        verify(itemNameIndex).update(item);
     }
 
     @Test
@@ -240,7 +304,7 @@ class ItemServiceImplTest {
         itemDto.setAvailable(item.getAvailable());
 
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.existsById(userId)).thenReturn(true);
         when(itemRepository.save(item)).thenReturn(item);
 
         ItemDto actualItemDto = itemService.updateItem(itemDto, userId, itemId);
@@ -260,7 +324,7 @@ class ItemServiceImplTest {
         User user = new User();
 
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.existsById(userId)).thenReturn(true);
         when(itemRepository.save(item)).thenReturn(item);
 
         ItemDto actualItemDto = itemService.updateItem(itemDto, userId, itemId);
@@ -280,7 +344,7 @@ class ItemServiceImplTest {
         User user = new User();
 
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.existsById(userId)).thenReturn(true);
         when(itemRepository.save(item)).thenReturn(item);
 
         ItemDto actualItemDto = itemService.updateItem(itemDto, userId, itemId);
@@ -300,7 +364,7 @@ class ItemServiceImplTest {
         User user = new User();
 
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.existsById(userId)).thenReturn(true);
         when(itemRepository.save(item)).thenReturn(item);
 
         ItemDto actualItemDto = itemService.updateItem(itemDto, userId, itemId);
@@ -331,7 +395,7 @@ class ItemServiceImplTest {
         user.setId(userId);
         ItemDto itemDto = new ItemDto();
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.existsById(userId)).thenReturn(true);
 
         NotFoundException ex = assertThrows(NotFoundException.class,
             () -> itemService.updateItem(itemDto, userId, itemId));
@@ -345,15 +409,13 @@ class ItemServiceImplTest {
         String text = "name";
         int from = 0;
         int size = 1;
-        PageRequest pageRequest = PageRequest.of(from / size, size);
         Item item = new Item();
         item.setName("name");
         ItemDto itemDto = new ItemDto();
         itemDto.setName(item.getName());
         List<Item> items = List.of(item);
-        Page<Item> itemPages = new PageImpl<>(items, pageRequest, items.size());
 
-        when(itemRepository.searchItemByText(text, pageRequest)).thenReturn(itemPages);
+        when(itemSearch.search(text, from, size)).thenReturn(items);
 
         List<ItemDto> itemDtoList = itemService.searchItem(text, from, size);
 
@@ -365,13 +427,12 @@ class ItemServiceImplTest {
         String text = "randomText";
         int from = 0;
         int size = 1;
-        PageRequest pageRequest = PageRequest.of(from / size, size);
         Item item = new Item();
         item.setName("name");
         ItemDto itemDto = new ItemDto();
         itemDto.setName(item.getName());
 
-        when(itemRepository.searchItemByText(text, pageRequest)).thenReturn(Page.empty());
+        when(itemSearch.search(text, from, size)).thenReturn(List.of());
 
         List<ItemDto> itemDtoList = itemService.searchItem(text, from, size);
 
@@ -383,7 +444,6 @@ class ItemServiceImplTest {
         String text = "";
         int from = 0;
         int size = 1;
-        PageRequest pageRequest = PageRequest.of(from / size, size);
         Item item = new Item();
         item.setName("name");
         ItemDto itemDto = new ItemDto();
@@ -392,7 +452,61 @@ class ItemServiceImplTest {
         List<ItemDto> itemDtoList = itemService.searchItem(text, from, size);
 
         assertEquals(0, itemDtoList.size());
-        verify(itemRepository, never()).searchItemByText(text, pageRequest);
+        verify(itemSearch, never()).search(text, from, size);
+    }
+
+    @Test
+    void autocomplete_whenPrefixValid_thenReturnSuggestions() {
+        Map<Long, String> names = new LinkedHashMap<>();
+        names.put(2L, "Дрель");
+        names.put(1L, "Дрель аккумуляторная");
+
+        when(itemNameIndex.find("дре", 2)).thenReturn(names);
+
+        List<ItemSuggestionDto> suggestions = itemService.autocomplete(" дре ", 2);
+
+        assertEquals(List.of(new ItemSuggestionDto(2L, "Дрель"), new ItemSuggestionDto(1L, "Дрель аккумуляторная")),
+            suggestions);
+    }
+
+    @Test
+    void autocomplete_whenLimitNotPositive_thenThrowException() {
+        ValidationException ex = assertThrows(ValidationException.class,
+            () -> itemService.autocomplete("дре", 0));
+
+        assertEquals("Количество подсказок должно быть положительным", ex.getMessage());
+        verify(itemNameIndex, never()).find(anyString(), anyInt());
+    }
+
+    @Test
+    void searchAvailableItem_whenItemFree_thenReturnItem() {
+        String text = "name";
+        int from = 0;
+        int size = 1;
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        LocalDateTime end = start.plusDays(1);
+        PageRequest pageRequest = PageRequest.of(from / size, size);
+        Item item = new Item();
+        item.setName("name");
+        List<Item> items = List.of(item);
+        Slice<Item> itemSlice = new SliceImpl<>(items, pageRequest, false);
+
+        when(itemRepository.searchAvailableItemByText(text, start, end, ItemAvailabilityIndex.ACTIVE_STATUSES,
+            pageRequest)).thenReturn(itemSlice);
+
+        List<ItemDto> itemDtoList = itemService.searchAvailableItem(text, start, end, from, size);
+
+        assertEquals("name", itemDtoList.get(0).getName());
+    }
+
+    @Test
+    void searchAvailableItem_whenStartAfterEnd_thenThrowException() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        ValidationException ex = assertThrows(ValidationException.class,
+            () -> itemService.searchAvailableItem("name", start, start.minusHours(1), 0, 1));
+
+        assertEquals("Начало периода должно быть раньше его окончания", ex.getMessage());
     }
 
     @Test
@@ -426,6 +540,8 @@ class ItemServiceImplTest {
         CommentInfoDto actualCommentInfoDto = itemService.addComment(authorId, itemId, commentDto);
 
         assertEquals(mapperCommentInfoDto, actualCommentInfoDto);
+        assertEquals(1, item.getCommentCount());
+        verify(entityManager).refresh(item, LockModeType.PESSIMISTIC_WRITE);
     }
 
     @Test
@@ -445,4 +561,80 @@ class ItemServiceImplTest {
         assertEquals("Только арендатор может оставлять отзыв", ex.getMessage());
         verify(commentRepository, never()).save(any(Comment.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getComments_whenMoreThanPage_thenReturnPageWithCursor() {
+        long itemId = 1L;
+        LocalDateTime created = LocalDateTime.of(2024, 5, 1, 12, 0);
+        List<Comment> comments = List.of(comment(3L, created), comment(2L, created), comment(1L, created.minusDays(1)));
+
+        when(itemRepository.existsById(itemId)).thenReturn(true);
+        when(commentRepository.findByItem_Id(itemId, PageRequest.of(0, 3, CommentRepository.NEWEST_FIRST)))
+            .thenReturn(comments);
+
+        CommentPageDto page = itemService.getComments(itemId, null, 2);
+
+        assertEquals(2, page.getComments().size());
+        assertEquals(new CommentCursor(created, 2L), CommentCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void getComments_whenCursorGiven_thenReturnCommentsAfterCursor() {
+        long itemId = 1L;
+        LocalDateTime created = LocalDateTime.of(2024, 5, 1, 12, 0);
+        String cursor = new CommentCursor(created, 2L).encode();
+
+        when(itemRepository.existsById(itemId)).thenReturn(true);
+        when(commentRepository.findByItem_IdAfter(itemId, created, 2L, PageRequest.of(0, 3)))
+            .thenReturn(List.of(comment(1L, created.minusDays(1))));
+
+        CommentPageDto page = itemService.getComments(itemId, cursor, 2);
+
+        assertEquals(1, page.getComments().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getComments_whenItemNotFound_thenThrowNotFoundException() {
+        when(itemRepository.existsById(5L)).thenReturn(false);
+
+        NotFoundException ex = assertThrows(NotFoundException.class, () -> itemService.getComments(5L, null, 10));
+
+        assertEquals("Не найден товар с id: 5", ex.getMessage());
+    }
+
+    @Test
+    void getComments_whenSizeNotPositive_thenThrowValidationException() {
+        assertThrows(ValidationException.class, () -> itemService.getComments(1L, null, 0));
+        verify(commentRepository, never()).findByItem_Id(anyLong(), any(PageRequest.class));
+    }
+
+    private Comment comment(long id, LocalDateTime created) {
+        User author = new User();
+        author.setName("author");
+        Comment comment = new Comment();
+        comment.setId(id);
+        comment.setAuthor(author);
+        comment.setCreated(created);
+        return comment;
+    }
+
+    private ItemBookingView itemBooking(long itemId, long bookingId, long bookerId) {
+        return new ItemBookingView() {
+            @Override
+            public Long getItemId() {
+                return itemId;
+            }
+
+            @Override
+            public Long getId() {
+                return bookingId;
+            }
+
+            @Override
+            public Long getBookerId() {
+                return bookerId;
+            }
+        };
+    }
+}
@@ -0,0 +1,91 @@
+package ru.practicum.shareit.item.storage;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+@DataJpaTest
+class CommentRepositoryTest {
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    private User author;
+    private Item drill;
+    private Item saw;
+    private final LocalDateTime created = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    @BeforeEach
+    void setUp() {
+        author = new User();
+        author.setName("author");
+        author.setEmail("author@mail.com");
+        userRepository.save(author);
+
+        drill = item("drill");
+        saw = item("saw");
+    }
+
+    @Test
+    void findRecentIdsByItemIds_thenReturnLimitPerItem() {
+        Comment oldest = comment(drill, created.minusDays(2));
+        Comment middle = comment(drill, created.minusDays(1));
+        Comment newest = comment(drill, created);
+        Comment sawComment = comment(saw, created.minusDays(5));
+
+        List<Long> ids = commentRepository.findRecentIdsByItemIds(List.of(drill.getId(), saw.getId()), 2).stream()
+            .map(Number::longValue)
+            .collect(toList());
+
+        assertEquals(3, ids.size());
+        assertTrue(ids.containsAll(List.of(newest.getId(), middle.getId(), sawComment.getId())));
+        assertFalse(ids.contains(oldest.getId()));
+    }
+
+    @Test
+    void findByItem_IdAfter_whenSameCreated_thenOrderById() {
+        Comment first = comment(drill, created);
+        Comment second = comment(drill, created);
+        Comment third = comment(drill, created.minusDays(1));
+
+        List<Comment> firstPage = commentRepository.findByItem_Id(drill.getId(),
+            PageRequest.of(0, 1, CommentRepository.NEWEST_FIRST));
+        List<Comment> nextPage = commentRepository.findByItem_IdAfter(drill.getId(), created, second.getId(),
+            PageRequest.of(0, 10));
+
+        assertEquals(List.of(second), firstPage);
+        assertEquals(List.of(first, third), nextPage);
+        assertEquals("author", nextPage.get(0).getAuthor().getName());
+    }
+
+    private Item item(String name) {
+        Item item = new Item();
+        item.setName(name);
+        item.setDescription(name);
+        item.setAvailable(true);
+        item.setOwner(author);
+        return itemRepository.save(item);
+    }
+
+    private Comment comment(Item item, LocalDateTime created) {
+        Comment comment = new Comment();
+        comment.setText("text");
+        comment.setItem(item);
+        comment.setAuthor(author);
+        comment.setCreated(created);
+        return commentRepository.save(comment);
+    }
+}
@@ -0,0 +1,73 @@
+package ru.practicum.shareit.item.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.model.Item;
+
+@ExtendWith(MockitoExtension.class)
+class ItemNameIndexTest {
+    @Mock
+    private ItemRepository itemRepository;
+    private ItemNameIndex itemNameIndex;
+
+    @BeforeEach
+    void setUp() {
+        itemNameIndex = new ItemNameIndex(itemRepository);
+        when(itemRepository.findAvailableItemNames()).thenReturn(List.of());
+        itemNameIndex.load();
+
+        itemNameIndex.update(item(1L, "Дрель аккумуляторная", true));
+        itemNameIndex.update(item(2L, "Дрель", true));
+        itemNameIndex.update(item(3L, "Отвёртка", true));
+    }
+
+    @Test
+    void find_whenPrefixMatchesNameStart_thenReturnShortestFirst() {
+        Map<Long, String> suggestions = itemNameIndex.find("ДРЕ", 10);
+
+        assertEquals(List.of(2L, 1L), List.copyOf(suggestions.keySet()));
+        assertEquals("Дрель", suggestions.get(2L));
+    }
+
+    @Test
+    void find_whenPrefixMatchesSecondWord_thenReturnItem() {
+        assertEquals(Map.of(1L, "Дрель аккумуляторная"), itemNameIndex.find("акк", 10));
+    }
+
+    @Test
+    void find_whenLimitReached_thenReturnLimitedResult() {
+        assertEquals(1, itemNameIndex.find("д", 1).size());
+    }
+
+    @Test
+    void update_whenItemRenamed_thenOldNameNotFound() {
+        itemNameIndex.update(item(3L, "Шуруповёрт", true));
+
+        assertTrue(itemNameIndex.find("отв", 10).isEmpty());
+        assertEquals(Map.of(3L, "Шуруповёрт"), itemNameIndex.find("шур", 10));
+    }
+
+    @Test
+    void update_whenItemUnavailable_thenItemRemoved() {
+        itemNameIndex.update(item(2L, "Дрель", false));
+
+        assertEquals(Map.of(1L, "Дрель аккумуляторная"), itemNameIndex.find("дрель", 10));
+    }
+
+    private Item item(long id, String name, boolean available) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName(name);
+        item.setAvailable(available);
+        return item;
+    }
+}
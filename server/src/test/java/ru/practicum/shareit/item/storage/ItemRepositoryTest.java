@@ -10,6 +10,11 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.booking.storage.ItemAvailabilityIndex;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.storage.ItemRequestsRepository;
@@ -24,6 +29,8 @@ class ItemRepositoryTest {
     private UserRepository userRepository;
     @Autowired
     private ItemRequestsRepository itemRequestRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
     private User owner;
     private User requester;
     private Item item;
@@ -76,6 +83,81 @@ class ItemRepositoryTest {
         assertEquals(1, items.size());
     }
 
+    @Test
+    void searchItemByText_whenItemUnavailable_thenReturnEmptyList() {
+        item.setAvailable(false);
+        itemRepository.save(item);
+
+        List<Item> byName = itemRepository
+            .searchItemByText("item", PageRequest.of(0, 1))
+            .getContent();
+        List<Item> byDescription = itemRepository
+            .searchItemByText("description", PageRequest.of(0, 1))
+            .getContent();
+
+        assertEquals(0, byName.size());
+        assertEquals(0, byDescription.size());
+    }
+
+    @Test
+    void searchAvailableItemByText_whenItemBookedInPeriod_thenReturnEmptyList() {
+        User booker = new User();
+        booker.setName("booker");
+        booker.setEmail("bookerEmail@mail.com");
+        userRepository.save(booker);
+
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        Booking booking = new Booking();
+        booking.setBooker(booker);
+        booking.setItem(item);
+        booking.setStart(start);
+        booking.setEnd(start.plusDays(2));
+        booking.setStatus(BookingStatus.APPROVED);
+        bookingRepository.save(booking);
+
+        List<Item> bookedItems = itemRepository
+            .searchAvailableItemByText("item", start.plusDays(1), start.plusDays(3),
+                ItemAvailabilityIndex.ACTIVE_STATUSES, PageRequest.of(0, 1))
+            .getContent();
+        List<Item> freeItems = itemRepository
+            .searchAvailableItemByText("item", start.plusDays(2), start.plusDays(3),
+                ItemAvailabilityIndex.ACTIVE_STATUSES, PageRequest.of(0, 1))
+            .getContent();
+
+        assertEquals(0, bookedItems.size());
+        assertEquals(1, freeItems.size());
+    }
+
+    @Test
+    void searchAvailableItemByText_whenSeveralPages_thenPagesFollowIdOrder() {
+        Item second = new Item();
+        second.setName("second item");
+        second.setDescription("itemDescription");
+        second.setAvailable(true);
+        second.setOwner(owner);
+        itemRepository.save(second);
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+
+        Slice<Item> firstPage = itemRepository.searchAvailableItemByText("item", start, start.plusDays(1),
+            ItemAvailabilityIndex.ACTIVE_STATUSES, PageRequest.of(0, 1));
+        Slice<Item> secondPage = itemRepository.searchAvailableItemByText("item", start, start.plusDays(1),
+            ItemAvailabilityIndex.ACTIVE_STATUSES, PageRequest.of(1, 1));
+
+        assertEquals(List.of(item.getId()), ids(firstPage));
+        assertTrue(firstPage.hasNext());
+        assertEquals(List.of(second.getId()), ids(secondPage));
+        assertFalse(secondPage.hasNext());
+    }
+
+    @Test
+    void findAvailableItemNames_whenItemAvailable_thenReturnName() {
+        List<ItemNameView> names = itemRepository.findAvailableItemNames();
+
+        assertEquals(1, names.size());
+        assertEquals(item.getId(), names.get(0).getId());
+        assertEquals("item", names.get(0).getName());
+    }
+
     @Test
     void findByItemRequestIn_whenItemRequestListIsCreated_thenReturnItemList() {
         List<Item> items = itemRepository.findByItemRequestIn(itemRequests);
@@ -92,8 +174,13 @@ class ItemRepositoryTest {
 
     @AfterEach
     void deleteAllItem() {
+        bookingRepository.deleteAll();
         itemRepository.deleteAll();
         itemRequestRepository.deleteAll();
         userRepository.deleteAll();
     }
-}
\ No newline at end of file
+
+    private static List<Long> ids(Slice<Item> items) {
+        return items.map(Item::getId).getContent();
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.shareit.item.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.model.Item;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSearchTest {
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Test
+    void search_whenFullTextMode_thenUseFullTextQueryWithPageOffset() {
+        ItemSearch itemSearch = new ItemSearch(itemRepository, ItemSearch.Mode.FULL_TEXT);
+        List<Item> items = List.of(new Item());
+
+        when(itemRepository.searchItemByFullText("дрель", 10, 20)).thenReturn(items);
+
+        assertEquals(items, itemSearch.search("дрель", 25, 10));
+        verify(itemRepository, never()).searchItemByText(any(), any(PageRequest.class));
+    }
+
+    @Test
+    void search_whenLikeMode_thenUseLikeQuery() {
+        ItemSearch itemSearch = new ItemSearch(itemRepository, ItemSearch.Mode.LIKE);
+        List<Item> items = List.of(new Item());
+
+        when(itemRepository.searchItemByText("дрель", PageRequest.of(2, 10))).thenReturn(new PageImpl<>(items));
+
+        assertEquals(items, itemSearch.search("дрель", 25, 10));
+        verify(itemRepository, never()).searchItemByFullText(any(), anyInt(), anyInt());
+    }
+}
@@ -2,8 +2,13 @@ package ru.practicum.shareit.request.service;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -11,11 +16,14 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionOperations;
+import ru.practicum.shareit.config.ParallelReads;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.storage.ItemRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
@@ -36,6 +44,9 @@ class ItemRequestServiceImplTest {
     private ItemRepository itemRepository;
     @Mock
     private UserRepository userRepository;
+    @Spy
+    private ParallelReads parallelReads = new ParallelReads(Runnable::run, TransactionOperations.withoutTransaction(),
+        TransactionOperations.withoutTransaction(), new SimpleMeterRegistry(), Duration.ofSeconds(5));
 
     @Test
     void createItemRequest_whenRequestValid_thenReturnRequest() {
@@ -71,7 +82,7 @@ class ItemRequestServiceImplTest {
         ItemRequestInfoDto itemRequestInfoDto = ItemRequestMapper.toItemRequestInfoDto(itemRequest, items);
         List<ItemRequestInfoDto> itemRequestInfoDtoList = List.of(itemRequestInfoDto);
 
-        when(userRepository.findById(requesterId)).thenReturn(Optional.of(requester));
+        when(userRepository.existsById(requesterId)).thenReturn(true);
         when(itemRequestsRepository.findByRequesterId(requesterId, sort))
             .thenReturn(itemRequests);
         when(itemRepository.findByItemRequestIn(itemRequests)).thenReturn(items);
@@ -99,7 +110,7 @@ class ItemRequestServiceImplTest {
         ItemRequestInfoDto itemRequestInfoDto = ItemRequestMapper.toItemRequestInfoDto(itemRequest, items);
         List<ItemRequestInfoDto> itemRequestInfoDtoList = List.of(itemRequestInfoDto);
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(new User()));
+        when(userRepository.existsById(userId)).thenReturn(true);
         when(itemRequestsRepository.findByRequesterIdNot(userId, pageRequest)).thenReturn(itemRequestPage);
         when(itemRepository.findByItemRequestIn(itemRequests)).thenReturn(items);
 
@@ -107,6 +118,7 @@ class ItemRequestServiceImplTest {
             .getRequests(userId, from, size);
 
         assertEquals(itemRequestInfoDtoList, resultItemRequestInfoDtoList);
+        verify(parallelReads).fork(eq("other-users-requests"), any());
     }
 
     @Test
@@ -119,12 +131,15 @@ class ItemRequestServiceImplTest {
         List<Item> items = List.of(new Item());
         ItemRequestInfoDto itemRequestInfoDto = ItemRequestMapper.toItemRequestInfoDto(itemRequest, items);
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(requester));
+        when(userRepository.existsById(userId)).thenReturn(true);
         when(itemRequestsRepository.findById(requestId)).thenReturn(Optional.of(itemRequest));
         when((itemRepository.findByItemRequest(itemRequest))).thenReturn(items);
 
         ItemRequestInfoDto actualItemRequestInfoDto = itemRequestService.getRequestById(userId, requestId);
 
         assertEquals(itemRequestInfoDto, actualItemRequestInfoDto);
+        verify(parallelReads).forkOnPrimary(eq("user-exists"), any());
+        verify(parallelReads).forkOnPrimary(eq("request"), any());
+        verify(parallelReads, never()).fork(any(), any());
     }
 }
\ No newline at end of file